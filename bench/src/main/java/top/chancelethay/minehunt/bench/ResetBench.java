@@ -0,0 +1,322 @@
+package top.chancelethay.minehunt.bench;
+
+import top.chancelethay.minehunt.utils.RegionFileIO;
+import top.chancelethay.minehunt.utils.TrashPurger;
+import top.chancelethay.minehunt.utils.WorldFiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 世界重置 I/O 基准测试
+ *
+ * 生成合成世界组后，分别计时 GameWorldManager 使用或可能使用的各种重置方式：
+ * 递归删除、重命名进回收站 (及后台清理耗时)、同文件系统原子移动、跨文件系统移动 (复制后删除)、
+ * 复制克隆、硬链接克隆，以及模板模式下按脏区块写回。每种方式每轮使用新生成的目录，生成过程不计时。
+ *
+ * 参数：
+ *   --dir PATH          工作目录 (默认 ./mh-bench)，应与服务端世界目录位于同一文件系统
+ *   --other PATH        另一文件系统上的目录 (例如 /dev/shm/mh-bench)，用于跨文件系统移动；不给则跳过
+ *   --regions O,N,E     各维度区域文件边长 (默认 4,2,2，约等于 640 格预生成半径)
+ *   --fill F            区块填充率 0..1 (默认 1.0，即完全预生成)
+ *   --sectors S         每个区块占用的 4KB 扇区数 (默认 2)
+ *   --iterations N      每种方式的轮数 (默认 5)
+ *   --dirty N           按脏区块写回时的区块数 (默认 1024)
+ *   --purge-rate N      回收站每秒删除文件数上限 (默认 0 = 不限速)
+ *   --only a,b          只运行指定的方式
+ */
+public final class ResetBench {
+
+    private static final String BASE = "minehunt_game";
+
+    private final Path dir;
+    private final Path other;
+    private final SyntheticWorld.Shape shape;
+    private final int iterations;
+    private final int dirtyChunks;
+    private final long purgeRate;
+    private final Set<String> only;
+    private long seq = 0L;
+
+    private ResetBench(Map<String, String> args) {
+        this.dir = Paths.get(args.getOrDefault("dir", "mh-bench")).toAbsolutePath().normalize();
+        this.other = args.containsKey("other") ? Paths.get(args.get("other")).toAbsolutePath().normalize() : null;
+        int[] regions = Arrays.stream(args.getOrDefault("regions", "4,2,2").split(","))
+                .mapToInt(v -> Math.max(1, Integer.parseInt(v.trim()))).toArray();
+        if (regions.length != 3) throw new IllegalArgumentException("--regions needs three values");
+        this.shape = new SyntheticWorld.Shape(regions,
+                Math.clamp(Double.parseDouble(args.getOrDefault("fill", "1.0")), 0.0, 1.0),
+                Math.max(1, Integer.parseInt(args.getOrDefault("sectors", "2"))));
+        this.iterations = Math.max(1, Integer.parseInt(args.getOrDefault("iterations", "5")));
+        this.dirtyChunks = Math.max(1, Integer.parseInt(args.getOrDefault("dirty", "1024")));
+        this.purgeRate = Math.max(0L, Long.parseLong(args.getOrDefault("purge-rate", "0")));
+        this.only = args.containsKey("only") ? Set.of(args.get("only").split(",")) : null;
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = new HashMap<>();
+        for (int i = 0; i < argv.length; i++) {
+            if (!argv[i].startsWith("--")) continue;
+            String key = argv[i].substring(2);
+            String value = (i + 1 < argv.length && !argv[i + 1].startsWith("--")) ? argv[++i] : "true";
+            args.put(key, value);
+        }
+        if (args.containsKey("help")) {
+            System.out.println("usage: java -jar minehunt-bench.jar [--dir PATH] [--other PATH] [--regions O,N,E]"
+                    + " [--fill F] [--sectors S] [--iterations N] [--dirty N] [--purge-rate N] [--only a,b]");
+            return;
+        }
+        new ResetBench(args).run();
+    }
+
+    /** 单项计时：setup 不计时，返回 (耗时纳秒) */
+    private interface Case {
+        long run(Path work) throws IOException;
+    }
+
+    private void run() throws IOException {
+        Files.createDirectories(dir);
+        if (other != null) Files.createDirectories(other);
+
+        Path probe = dir.resolve("probe");
+        SyntheticWorld.build(probe, BASE, shape, 1L);
+        long[] size = treeSize(probe);
+        WorldFiles.deleteTree(probe);
+
+        System.out.printf(Locale.ROOT, "MineHunt reset bench: %s%n", dir);
+        System.out.printf(Locale.ROOT, "World set: regions %s, fill %.2f, %d sectors/chunk -> %d files, %d MB%n",
+                Arrays.toString(shape.regionsPerSide()), shape.fill(), shape.sectorsPerChunk(), size[0], size[1] >> 20);
+        if (other != null) {
+            boolean same = Files.getFileStore(dir).equals(Files.getFileStore(other));
+            System.out.printf(Locale.ROOT, "Other dir: %s (%s)%n", other, same ? "same filesystem" : "different filesystem");
+        }
+        System.out.printf(Locale.ROOT, "Iterations: %d (page cache is not dropped between runs)%n%n", iterations);
+
+        Map<String, Case> cases = new LinkedHashMap<>();
+        cases.put("delete", this::caseDelete);
+        cases.put("trash-rename", this::caseTrashRename);
+        cases.put("trash-purge", this::caseTrashPurge);
+        cases.put("move-atomic", this::caseMoveAtomic);
+        if (other != null) cases.put("move-cross-fs", this::caseMoveCrossFs);
+        cases.put("clone-copy", this::caseCloneCopy);
+        cases.put("clone-hardlink", this::caseCloneHardLink);
+        cases.put("restore-dirty", this::caseRestoreDirty);
+
+        System.out.printf(Locale.ROOT, "%-16s %10s %10s %10s %10s%n", "strategy", "median ms", "min ms", "max ms", "set MB/s");
+        for (Map.Entry<String, Case> e : cases.entrySet()) {
+            if (only != null && !only.contains(e.getKey())) continue;
+            long[] nanos = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                Path work = dir.resolve("run-" + (seq++));
+                Files.createDirectories(work);
+                try {
+                    nanos[i] = e.getValue().run(work);
+                } finally {
+                    WorldFiles.deleteTree(work);
+                }
+            }
+            report(e.getKey(), nanos, size[1]);
+        }
+    }
+
+    private void report(String name, long[] nanos, long bytes) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double median = sorted[sorted.length / 2] / 1e6;
+        double mbps = median <= 0.0 ? 0.0 : (bytes / 1048576.0) / (median / 1000.0);
+        System.out.printf(Locale.ROOT, "%-16s %10.1f %10.1f %10.1f %10.0f%n",
+                name, median, sorted[0] / 1e6, sorted[sorted.length - 1] / 1e6, mbps);
+    }
+
+    // ---------- 各种重置方式 ----------
+
+    /** deleteWorldFolder 的回退路径：同步递归删除 */
+    private long caseDelete(Path work) throws IOException {
+        SyntheticWorld.build(work, BASE, shape, seq);
+        long start = System.nanoTime();
+        for (String suffix : SyntheticWorld.DIMENSION_SUFFIXES) WorldFiles.deleteTree(work.resolve(BASE + suffix));
+        return System.nanoTime() - start;
+    }
+
+    /** deleteWorldFolder 的常规路径：重命名进回收站，只计重置流程实际等待的部分 */
+    private long caseTrashRename(Path work) throws IOException {
+        SyntheticWorld.build(work, BASE, shape, seq);
+        TrashPurger purger = newPurger(work);
+        try {
+            long start = System.nanoTime();
+            for (String suffix : SyntheticWorld.DIMENSION_SUFFIXES) {
+                if (!purger.trash(work.resolve(BASE + suffix))) throw new IOException("trash rename failed");
+            }
+            return System.nanoTime() - start;
+        } finally {
+            awaitPurged(purger);
+            purger.shutdown();
+        }
+    }
+
+    /** 回收站后台清理完一组世界所需的时间 (不阻塞重置，但占用磁盘) */
+    private long caseTrashPurge(Path work) throws IOException {
+        SyntheticWorld.build(work, BASE, shape, seq);
+        TrashPurger purger = newPurger(work);
+        try {
+            for (String suffix : SyntheticWorld.DIMENSION_SUFFIXES) {
+                if (!purger.trash(work.resolve(BASE + suffix))) throw new IOException("trash rename failed");
+            }
+            long start = System.nanoTime();
+            awaitPurged(purger);
+            return System.nanoTime() - start;
+        } finally {
+            purger.shutdown();
+        }
+    }
+
+    /** 移动式切换：备用槽位目录原子重命名为活动世界组 */
+    private long caseMoveAtomic(Path work) throws IOException {
+        SyntheticWorld.build(work, BASE + "_next", shape, seq);
+        long start = System.nanoTime();
+        for (String suffix : SyntheticWorld.DIMENSION_SUFFIXES) {
+            Files.move(work.resolve(BASE + "_next" + suffix), work.resolve(BASE + suffix), StandardCopyOption.ATOMIC_MOVE);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /** 跨文件系统移动 (与 WorldDirs 的回退路径一致)：复制后删除源目录 */
+    private long caseMoveCrossFs(Path work) throws IOException {
+        SyntheticWorld.build(work, BASE + "_next", shape, seq);
+        Path target = other.resolve(work.getFileName());
+        try {
+            long start = System.nanoTime();
+            for (String suffix : SyntheticWorld.DIMENSION_SUFFIXES) {
+                Path src = work.resolve(BASE + "_next" + suffix);
+                WorldFiles.copyTree(src, target.resolve(BASE + suffix), Set.of());
+                WorldFiles.deleteTree(src);
+            }
+            return System.nanoTime() - start;
+        } finally {
+            WorldFiles.deleteTree(target);
+        }
+    }
+
+    /** 模板模式克隆：逐文件复制 (支持 reflink 的文件系统上为写时复制) */
+    private long caseCloneCopy(Path work) throws IOException {
+        SyntheticWorld.build(work, BASE + "_template", shape, seq);
+        long start = System.nanoTime();
+        for (String suffix : SyntheticWorld.DIMENSION_SUFFIXES) {
+            WorldFiles.copyTree(work.resolve(BASE + "_template" + suffix), work.resolve(BASE + suffix),
+                    Set.of("uid.dat", "session.lock"));
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 硬链接克隆：仅作对比。服务端会原地改写 .mca，线上不能使用 (会把本轮改动写回模板)。
+     */
+    private long caseCloneHardLink(Path work) throws IOException {
+        SyntheticWorld.build(work, BASE + "_template", shape, seq);
+        long start = System.nanoTime();
+        for (String suffix : SyntheticWorld.DIMENSION_SUFFIXES) {
+            linkTree(work.resolve(BASE + "_template" + suffix), work.resolve(BASE + suffix));
+        }
+        return System.nanoTime() - start;
+    }
+
+    /** 局部恢复：把随机分布的脏区块从模板写回活动世界 */
+    private long caseRestoreDirty(Path work) throws IOException {
+        Path template = work.resolve("template");
+        Path live = work.resolve("live");
+        SyntheticWorld.build(template, BASE, shape, seq);
+        for (String suffix : SyntheticWorld.DIMENSION_SUFFIXES) {
+            WorldFiles.copyTree(template.resolve(BASE + suffix), live.resolve(BASE + suffix), Set.of());
+        }
+
+        // 脏区块集中在主世界出生点附近
+        int side = shape.regionsPerSide()[0];
+        int half = side / 2;
+        SplittableRandom rnd = new SplittableRandom(seq);
+        Map<Long, List<Integer>> byRegion = new HashMap<>();
+        for (int i = 0; i < dirtyChunks; i++) {
+            int rx = rnd.nextInt(side) - half;
+            int rz = rnd.nextInt(side) - half;
+            byRegion.computeIfAbsent(((long) rx << 32) | (rz & 0xFFFFFFFFL), k -> new ArrayList<>()).add(rnd.nextInt(1024));
+        }
+
+        long start = System.nanoTime();
+        for (String sub : new String[]{"region", "entities", "poi"}) {
+            for (Map.Entry<Long, List<Integer>> e : byRegion.entrySet()) {
+                int rx = (int) (e.getKey() >> 32);
+                int rz = (int) (long) e.getKey();
+                String file = RegionFileIO.regionFileName(rx, rz);
+                RegionFileIO.restoreChunks(template.resolve(BASE).resolve(sub).resolve(file),
+                        live.resolve(BASE).resolve(sub).resolve(file), rx, rz, e.getValue());
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    // ---------- 工具 ----------
+
+    private TrashPurger newPurger(Path work) {
+        Logger log = Logger.getLogger("MineHuntBench");
+        log.setLevel(Level.WARNING);
+        return new TrashPurger(work.resolve(".trash"), 1, purgeRate, log);
+    }
+
+    private static void awaitPurged(TrashPurger purger) {
+        while (purger.getPendingTrees() > 0) {
+            try {
+                Thread.sleep(5L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void linkTree(Path src, Path dst) throws IOException {
+        Files.walkFileTree(src, new SimpleFileVisitor<>() {
+            @Override public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(dst.resolve(src.relativize(d).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+            @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.createLink(dst.resolve(src.relativize(file).toString()), file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /** 目录树的文件数与字节数 */
+    private static long[] treeSize(Path root) throws IOException {
+        long[] out = new long[2];
+        try (Stream<Path> s = Files.walk(root)) {
+            s.filter(Files::isRegularFile).forEach(p -> {
+                try {
+                    out[0]++;
+                    out[1] += Files.size(p);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        return out;
+    }
+}
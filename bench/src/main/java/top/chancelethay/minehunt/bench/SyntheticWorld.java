@@ -0,0 +1,101 @@
+package top.chancelethay.minehunt.bench;
+
+import top.chancelethay.minehunt.utils.RegionFileIO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * 合成世界目录
+ *
+ * 按服务端的目录布局生成一组世界 (主世界/下界/末地)：region / entities / poi 下的 .mca 区域文件
+ * (头部位置表与时间戳有效，区块数据为随机字节)，以及 level.dat、data/*.dat 等小文件。
+ * 内容不可被服务端加载，但文件数量、大小与扇区布局与预生成后的真实世界一致，足以衡量文件系统操作。
+ */
+public final class SyntheticWorld {
+
+    static final String[] DIMENSION_SUFFIXES = {"", "_nether", "_the_end"};
+    private static final int SECTOR = 4096;
+
+    /** 生成参数：每个维度的区域文件边长、区块填充率与单个区块占用的扇区数 */
+    public record Shape(int[] regionsPerSide, double fill, int sectorsPerChunk) {}
+
+    private SyntheticWorld() {}
+
+    /**
+     * 在 root 下生成名为 base 的世界组。
+     */
+    public static void build(Path root, String base, Shape shape, long seed) throws IOException {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int dim = 0; dim < DIMENSION_SUFFIXES.length; dim++) {
+            Path world = root.resolve(base + DIMENSION_SUFFIXES[dim]);
+            // 与服务端一致：下界/末地的区域目录位于 DIM-1 / DIM1 子目录中
+            Path regionRoot = switch (dim) {
+                case 1 -> world.resolve("DIM-1");
+                case 2 -> world.resolve("DIM1");
+                default -> world;
+            };
+            int side = shape.regionsPerSide()[dim];
+            int half = side / 2;
+            for (int rx = -half; rx < side - half; rx++) {
+                for (int rz = -half; rz < side - half; rz++) {
+                    String file = RegionFileIO.regionFileName(rx, rz);
+                    writeRegion(regionRoot.resolve("region").resolve(file), shape.fill(), shape.sectorsPerChunk(), rnd);
+                    writeRegion(regionRoot.resolve("entities").resolve(file), shape.fill() * 0.3, 1, rnd);
+                    writeRegion(regionRoot.resolve("poi").resolve(file), shape.fill() * 0.1, 1, rnd);
+                }
+            }
+            writeSmall(world.resolve("level.dat"), 2048, rnd);
+            writeSmall(world.resolve("uid.dat"), 16, rnd);
+            writeSmall(world.resolve("session.lock"), 3, rnd);
+            writeSmall(regionRoot.resolve("data").resolve("raids.dat"), 512, rnd);
+            writeSmall(regionRoot.resolve("data").resolve("random_sequences.dat"), 4096, rnd);
+            writeSmall(regionRoot.resolve("data").resolve("chunks.dat"), 256, rnd);
+        }
+    }
+
+    /**
+     * 写入一个区域文件：按填充率随机选择区块，区块数据紧随头部顺序排列。
+     */
+    static void writeRegion(Path file, double fill, int sectorsPerChunk, SplittableRandom rnd) throws IOException {
+        Files.createDirectories(file.getParent());
+        ByteBuffer header = ByteBuffer.allocate(SECTOR * 2);
+        byte[] chunk = new byte[sectorsPerChunk * SECTOR];
+        int stamp = (int) (System.currentTimeMillis() / 1000L);
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long sector = 2;
+            for (int idx = 0; idx < 1024; idx++) {
+                if (rnd.nextDouble() >= fill) continue;
+                rnd.nextBytes(chunk);
+                int len = chunk.length - 5 - rnd.nextInt(SECTOR / 2);
+                ByteBuffer data = ByteBuffer.wrap(chunk);
+                data.putInt(0, len);
+                // 2 = zlib，不使用外部 .mcc 文件
+                data.put(4, (byte) 2);
+                long pos = sector * SECTOR;
+                while (data.hasRemaining()) pos += ch.write(data, pos);
+
+                header.putInt(idx * 4, (int) (sector << 8) | sectorsPerChunk);
+                header.putInt(SECTOR + idx * 4, stamp);
+                sector += sectorsPerChunk;
+            }
+            header.rewind();
+            long pos = 0;
+            while (header.hasRemaining()) pos += ch.write(header, pos);
+        }
+    }
+
+    private static void writeSmall(Path file, int size, SplittableRandom rnd) throws IOException {
+        Files.createDirectories(file.getParent());
+        byte[] b = new byte[size];
+        rnd.nextBytes(b);
+        Files.write(file, b);
+    }
+}
@@ -4,6 +4,7 @@ import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 import top.chancelethay.minehunt.command.*;
+import top.chancelethay.minehunt.game.GameState;
 import top.chancelethay.minehunt.utils.*;
 import top.chancelethay.minehunt.game.listener.*;
 import top.chancelethay.minehunt.game.manager.*;
@@ -27,9 +28,12 @@ public final class MineHuntPlugin extends JavaPlugin {
     private PlayerRoleManager playerRoleManager;
     private GameManager gameManager;
     private GameWorldManager worldManager;
+    private ActiveWorldRegistry activeWorlds;
 
     // 业务服务
     private SpawnScatterManager spawnScatterManager;
+    private SafeLocationService safeLocations;
+    private TeleportPlanner teleportPlanner;
     private TrackingListener trackingListener;
     private LobbyListener lobbyListener;
 
@@ -40,6 +44,8 @@ public final class MineHuntPlugin extends JavaPlugin {
     private PortalLinkListener portalLinkListener;
     private PlayerLifecycleListener playerLifecycleListener;
     private MiscListener miscListener;
+    private DirtyChunkTracker dirtyChunkTracker;
+    private ExplorationRecorder explorationRecorder;
 
     @Override
     public void onEnable() {
@@ -70,6 +76,15 @@ public final class MineHuntPlugin extends JavaPlugin {
         if (lobbyListener != null) {
             try { lobbyListener.disable(); } catch (Throwable ignored) {}
         }
+        if (teleportPlanner != null) {
+            try { teleportPlanner.shutdown(); } catch (Throwable ignored) {}
+        }
+        if (safeLocations != null) {
+            try { safeLocations.shutdown(); } catch (Throwable ignored) {}
+        }
+        if (worldManager != null) {
+            try { worldManager.shutdown(); } catch (Throwable ignored) {}
+        }
         getLogger().info("MineHunt disabled.");
     }
 
@@ -82,12 +97,15 @@ public final class MineHuntPlugin extends JavaPlugin {
         this.tasks = new Tasks(this);
 
         // 2. 初始化世界管理并加载必要世界
-        this.worldManager = new GameWorldManager(tasks);
+        this.activeWorlds = new ActiveWorldRegistry(this, settings);
+        this.worldManager = new GameWorldManager(tasks, activeWorlds);
         this.worldManager.ensureWorlds(settings);
 
         // 3. 初始化基础服务
         this.trackingListener = new TrackingListener(msg, tasks, this, null);
-        this.spawnScatterManager = new SpawnScatterManager(settings, tasks);
+        this.safeLocations = new SafeLocationService();
+        this.teleportPlanner = new TeleportPlanner(tasks, settings);
+        this.spawnScatterManager = new SpawnScatterManager(settings, tasks, activeWorlds, safeLocations, teleportPlanner);
 
         // 4. 构建核心管理器
         // 实例化 GameManager，RoleManager 暂留空
@@ -111,7 +129,9 @@ public final class MineHuntPlugin extends JavaPlugin {
                 trackingListener,
                 settings,
                 msg,
-                tasks
+                tasks,
+                activeWorlds,
+                teleportPlanner
         );
 
         // 5. 补全延迟依赖注入
@@ -142,6 +162,11 @@ public final class MineHuntPlugin extends JavaPlugin {
 
         // 7. 完成最终连接
         this.gameManager.setLobbyCoordinator(lobbyListener);
+        this.gameManager.setTeleportPlanner(teleportPlanner);
+        this.worldManager.setRoundRunningSupplier(() -> gameManager.getState() == GameState.RUNNING);
+        this.worldManager.setDimensionLoadedHook(gameManager::applyDimensionRules);
+        this.worldManager.setOverworldPreloadedHook(spawnScatterManager::buildSpawnIndex);
+        this.spawnScatterManager.setPregenBudget(worldManager::getPregenBudget);
 
         // 8. 激活服务监听
         this.lobbyListener.enable();
@@ -178,7 +203,7 @@ public final class MineHuntPlugin extends JavaPlugin {
     private void registerListeners() {
         PluginManager pm = getServer().getPluginManager();
 
-        this.portalLinkListener = new PortalLinkListener(settings);
+        this.portalLinkListener = new PortalLinkListener(settings, activeWorlds, worldManager);
         pm.registerEvents(this.portalLinkListener, this);
 
         pm.registerEvents(this.playerLifecycleListener, this);
@@ -192,6 +217,14 @@ public final class MineHuntPlugin extends JavaPlugin {
         pm.registerEvents(this.miscListener, this);
 
         pm.registerEvents(this.boardListener, this);
+
+        this.dirtyChunkTracker = new DirtyChunkTracker(activeWorlds);
+        this.worldManager.setDirtyChunkTracker(dirtyChunkTracker);
+        pm.registerEvents(this.dirtyChunkTracker, this);
+
+        this.explorationRecorder = new ExplorationRecorder(settings, activeWorlds, worldManager);
+        this.gameManager.setExplorationRecorder(explorationRecorder);
+        pm.registerEvents(this.explorationRecorder, this);
     }
 
     public Settings getSettings() { return settings; }
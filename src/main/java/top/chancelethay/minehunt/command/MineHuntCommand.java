@@ -9,10 +9,14 @@ import top.chancelethay.minehunt.utils.Settings;
 import top.chancelethay.minehunt.game.GameState;
 import top.chancelethay.minehunt.game.PlayerRole;
 import top.chancelethay.minehunt.game.WinReason;
+import top.chancelethay.minehunt.game.manager.ActiveWorldRegistry;
 import top.chancelethay.minehunt.game.manager.GameManager;
 import top.chancelethay.minehunt.game.manager.GameWorldManager;
 import top.chancelethay.minehunt.game.manager.PlayerRoleManager;
+import top.chancelethay.minehunt.game.manager.PregenJobRegistry;
+import top.chancelethay.minehunt.game.manager.WorldSetCache;
 import top.chancelethay.minehunt.utils.MessageService;
+import top.chancelethay.minehunt.utils.WorldArchiver;
 
 import java.util.*;
 import org.jetbrains.annotations.NotNull;
@@ -107,12 +111,63 @@ public final class MineHuntCommand implements CommandExecutor, TabCompleter {
                 );
 
                 String extra = String.format(
-                        "&7NextPrep:&b %s &7| Ready:&b %s &7| Next%%:&b %d",
+                        "&7Worlds:&b %s &7| NextPrep:&b %s &7| Ready:&b %s &7| Next%%:&b %d",
+                        worlds.getLifecycle().name(),
                         nextPreparing ? "true" : "false",
                         nextReady ? "true" : "false",
                         nextPct
                 );
                 sender.sendMessage(MessageService.color(extra));
+
+                StringBuilder pool = new StringBuilder("&7Pool &8(" + worlds.getThrottleSummary() + ")&7:");
+                for (GameWorldManager.SlotStatus slot : worlds.getPoolStatus()) {
+                    String state = switch (slot.state()) {
+                        case READY -> "&aREADY";
+                        case PREPARING -> "&e" + slot.progressPercent() + "% &7(O " + slot.overworldPercent()
+                                + " / N " + slot.netherPercent() + " / E " + slot.endPercent() + ")";
+                        case EMPTY -> "&8EMPTY";
+                    };
+                    pool.append(" &7#").append(slot.index()).append(' ').append(state);
+                }
+                sender.sendMessage(MessageService.color(pool.toString()));
+
+                for (PregenJobRegistry.JobStatus job : worlds.getPregenJobs()) {
+                    long sec = job.elapsedMillis() / 1000L;
+                    String line = String.format(Locale.ROOT,
+                            "&7Pregen &b%s&7 (%s): &e%d%% &7| &b%d &7chunks | &b%.1f &7c/s | &b%d:%02d &7| try &b%d",
+                            job.worldName(), job.backend(), job.percent(), job.chunks(),
+                            job.chunksPerSecond(), sec / 60, sec % 60, job.attempt()
+                    );
+                    sender.sendMessage(MessageService.color(line));
+                }
+
+                String trash = String.format(
+                        "&7Trash pending:&b %d &7| Freed:&b %d MB &7/&b %d files",
+                        worlds.getTrashPendingTrees(),
+                        worlds.getTrashFreedBytes() >> 20,
+                        worlds.getTrashFreedFiles()
+                );
+                sender.sendMessage(MessageService.color(trash));
+
+                WorldArchiver archiver = worlds.getArchiver();
+                if (archiver != null) {
+                    String archive = String.format(
+                            "&7Archive queued:&b %d &7| Written:&b %d MB &7| Skipped chunks:&b %d",
+                            archiver.getPending(),
+                            archiver.getWrittenBytes() >> 20,
+                            archiver.getSkippedChunks()
+                    );
+                    sender.sendMessage(MessageService.color(archive));
+                }
+
+                if (!settings.resetSeedList.isEmpty()) {
+                    WorldSetCache cache = worlds.getSeedCache();
+                    String seeds = String.format(
+                            "&7Seed cache:&b %d &7hits /&b %d &7misses",
+                            cache.getHits(), cache.getMisses()
+                    );
+                    sender.sendMessage(MessageService.color(seeds));
+                }
                 return true;
             }
 
@@ -238,12 +293,12 @@ public final class MineHuntCommand implements CommandExecutor, TabCompleter {
                 }
 
                 String which = args[1].toLowerCase(Locale.ROOT);
-                String base = settings.gameWorld;
+                ActiveWorldRegistry active = worlds.getActiveWorlds();
                 World target = switch (which) {
                     case "lobby" -> Bukkit.getWorld(settings.lobbyWorld);
-                    case "game" -> Bukkit.getWorld(base);
-                    case "nether" -> Bukkit.getWorld(base + "_nether");
-                    case "end" -> Bukkit.getWorld(base + "_the_end");
+                    case "game" -> active.overworld();
+                    case "nether" -> worlds.loadDimension(World.Environment.NETHER);
+                    case "end" -> worlds.loadDimension(World.Environment.THE_END);
                     default -> Bukkit.getWorld(which);
                 };
 
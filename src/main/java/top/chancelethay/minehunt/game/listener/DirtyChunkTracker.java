@@ -0,0 +1,99 @@
+package top.chancelethay.minehunt.game.listener;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import top.chancelethay.minehunt.game.manager.ActiveWorldRegistry;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 脏区块追踪器
+ *
+ * 记录当前游戏世界组在本轮中加载过的所有区块，供重置时只恢复这些区块。
+ * 以区块加载而不是方块事件为准：随机刻、生物活动、InhabitedTime 等都会让已加载区块被重新写盘，
+ * 只监听放置/破坏/爆炸/流体会漏掉这些改动。
+ */
+public final class DirtyChunkTracker implements Listener {
+
+    private final ActiveWorldRegistry activeWorlds;
+    private final Map<String, Set<Long>> dirty = new ConcurrentHashMap<>();
+
+    public DirtyChunkTracker(ActiveWorldRegistry activeWorlds) {
+        this.activeWorlds = activeWorlds;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent e) {
+        Set<Long> set = dirty.get(e.getWorld().getName());
+        if (set == null) return;
+        Chunk c = e.getChunk();
+        set.add(key(c.getX(), c.getZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent e) {
+        World w = e.getWorld();
+        Set<Long> set = dirty.get(w.getName());
+        if (set == null) return;
+        for (Chunk c : w.getLoadedChunks()) {
+            set.add(key(c.getX(), c.getZ()));
+        }
+    }
+
+    /**
+     * 从零开始追踪当前活动世界组。应在世界组恢复为原始状态之后调用；
+     * 已处于加载状态的世界 (A/B 切换) 会把当前已加载的区块一并计入。
+     */
+    public void arm() {
+        dirty.clear();
+        for (String suffix : new String[]{"", "_nether", "_the_end"}) {
+            String name = activeWorlds.getBase() + suffix;
+            Set<Long> set = ConcurrentHashMap.newKeySet();
+            World w = Bukkit.getWorld(name);
+            if (w != null) {
+                for (Chunk c : w.getLoadedChunks()) set.add(key(c.getX(), c.getZ()));
+            }
+            dirty.put(name, set);
+        }
+    }
+
+    /**
+     * 取出并清空当前记录的脏区块，追踪随之停止，直到再次 arm()。
+     */
+    public Map<String, Set<Long>> drain() {
+        Map<String, Set<Long>> out = new ConcurrentHashMap<>();
+        for (Map.Entry<String, Set<Long>> e : dirty.entrySet()) {
+            out.put(e.getKey(), Collections.unmodifiableSet(new HashSet<>(e.getValue())));
+        }
+        dirty.clear();
+        return out;
+    }
+
+    public int countDirty() {
+        int n = 0;
+        for (Set<Long> set : dirty.values()) n += set.size();
+        return n;
+    }
+
+    public static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int keyZ(long key) {
+        return (int) key;
+    }
+}
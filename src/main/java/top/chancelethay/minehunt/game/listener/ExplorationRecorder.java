@@ -0,0 +1,137 @@
+package top.chancelethay.minehunt.game.listener;
+
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import top.chancelethay.minehunt.game.manager.ActiveWorldRegistry;
+import top.chancelethay.minehunt.game.manager.ExplorationHistory;
+import top.chancelethay.minehunt.game.manager.GameWorldManager;
+import top.chancelethay.minehunt.utils.Settings;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 探索范围记录器
+ *
+ * 对局进行中记录非旁观玩家在当前游戏世界组各维度中首次进入每个区块的时间 (相对开局的秒数)。
+ * 只在跨越区块边界或传送时采样，开销很小。对局结束时汇总为一行摘要写入 {@link ExplorationHistory}。
+ * 主世界只统计首次进入下界之前到访的区块，即“找到下界之前跑了多远”。
+ */
+public final class ExplorationRecorder implements Listener {
+
+    private final Settings settings;
+    private final ActiveWorldRegistry activeWorlds;
+    private final GameWorldManager worldManager;
+
+    // 各维度：区块 -> 首次到访秒数
+    @SuppressWarnings("unchecked")
+    private final Map<Long, Integer>[] firstVisit = new Map[]{new HashMap<>(), new HashMap<>(), new HashMap<>()};
+    private final int[][] centers = new int[3][2];
+    private long startMillis = 0L;
+    private int netherAtSec = -1;
+    private boolean recording = false;
+
+    public ExplorationRecorder(Settings settings, ActiveWorldRegistry activeWorlds, GameWorldManager worldManager) {
+        this.settings = settings;
+        this.activeWorlds = activeWorlds;
+        this.worldManager = worldManager;
+    }
+
+    /**
+     * 开局时调用。距离以主世界出生点、其下界对应点 (1/8) 与末地原点为中心计算，与预生成中心一致。
+     */
+    public void beginRound() {
+        for (Map<Long, Integer> m : firstVisit) m.clear();
+        World ow = activeWorlds.overworld();
+        Location spawn = (ow != null) ? ow.getSpawnLocation() : null;
+        int sx = (spawn != null) ? spawn.getBlockX() : 0;
+        int sz = (spawn != null) ? spawn.getBlockZ() : 0;
+        centers[0] = new int[]{sx, sz};
+        centers[1] = new int[]{sx / 8, sz / 8};
+        centers[2] = new int[]{0, 0};
+        startMillis = System.currentTimeMillis();
+        netherAtSec = -1;
+        recording = true;
+    }
+
+    /**
+     * 结束时调用，汇总并写入历史。
+     */
+    public void endRound() {
+        if (!recording) return;
+        recording = false;
+
+        int duration = (int) ((System.currentTimeMillis() - startMillis) / 1000L);
+        int[] radius = new int[3];
+        int[] chunks = new int[3];
+        for (int dim = 0; dim < 3; dim++) {
+            int cutoff = (dim == 0 && netherAtSec >= 0) ? netherAtSec : Integer.MAX_VALUE;
+            radius[dim] = p95Distance(dim, cutoff);
+            chunks[dim] = firstVisit[dim].size();
+        }
+        if (chunks[0] == 0) return;
+
+        worldManager.recordExploration(settings, new ExplorationHistory.Round(radius, chunks, netherAtSec, duration));
+        for (Map<Long, Integer> m : firstVisit) m.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent e) {
+        if (!recording) return;
+        Location from = e.getFrom();
+        Location to = e.getTo();
+        if ((from.getBlockX() >> 4) == (to.getBlockX() >> 4)
+                && (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)
+                && from.getWorld() == to.getWorld()) return;
+        record(e.getPlayer(), to);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent e) {
+        if (!recording || e.getTo() == null) return;
+        record(e.getPlayer(), e.getTo());
+    }
+
+    private void record(Player p, Location to) {
+        if (p.getGameMode() == GameMode.SPECTATOR) return;
+        World w = to.getWorld();
+        if (!activeWorlds.isGameWorld(w)) return;
+
+        int dim = switch (w.getEnvironment()) {
+            case NETHER -> 1;
+            case THE_END -> 2;
+            default -> 0;
+        };
+        int sec = (int) ((System.currentTimeMillis() - startMillis) / 1000L);
+        long key = DirtyChunkTracker.key(to.getBlockX() >> 4, to.getBlockZ() >> 4);
+        if (firstVisit[dim].putIfAbsent(key, sec) == null && dim == 1 && netherAtSec < 0) {
+            netherAtSec = sec;
+        }
+    }
+
+    private int p95Distance(int dim, int cutoffSec) {
+        Map<Long, Integer> visits = firstVisit[dim];
+        if (visits.isEmpty()) return 0;
+
+        int[] d = new int[visits.size()];
+        int n = 0;
+        int cx = centers[dim][0], cz = centers[dim][1];
+        for (Map.Entry<Long, Integer> e : visits.entrySet()) {
+            if (e.getValue() > cutoffSec) continue;
+            int bx = (DirtyChunkTracker.keyX(e.getKey()) << 4) + 8;
+            int bz = (DirtyChunkTracker.keyZ(e.getKey()) << 4) + 8;
+            d[n++] = (int) Math.hypot(bx - cx, bz - cz);
+        }
+        if (n == 0) return 0;
+        Arrays.sort(d, 0, n);
+        return d[Math.min(n - 1, (int) Math.ceil(n * 0.95) - 1)];
+    }
+}
@@ -1,16 +1,21 @@
 package top.chancelethay.minehunt.game.listener;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityPortalEvent;
+import org.bukkit.event.player.PlayerAdvancementDoneEvent;
 import org.bukkit.event.player.PlayerPortalEvent;
 import org.bukkit.event.player.PlayerTeleportEvent.TeleportCause;
+import org.bukkit.event.world.PortalCreateEvent;
 import org.bukkit.Location;
+import top.chancelethay.minehunt.game.manager.ActiveWorldRegistry;
+import top.chancelethay.minehunt.game.manager.GameWorldManager;
 import top.chancelethay.minehunt.utils.Settings;
 
 /**
@@ -18,23 +23,24 @@ import top.chancelethay.minehunt.utils.Settings;
  *
  * 接管原版的传送门逻辑，强制将玩家或实体传送至插件管理的独立游戏世界。
  * 自动处理主世界与下界/末地的坐标映射。
+ * 下界/末地按需加载时，在传送当刻补加载目标维度，并在点燃下界传送门、获得“隔墙有眼”进度时提前预热。
  */
 public final class PortalLinkListener implements Listener {
 
     private Settings settings;
+    private final ActiveWorldRegistry activeWorlds;
+    private final GameWorldManager worldManager;
     private static final double SAFE_BORDER_RADIUS = 5400.0;
+    private static final NamespacedKey FOLLOW_ENDER_EYE = NamespacedKey.minecraft("story/follow_ender_eye");
 
-    private World cGame, cNether, cEnd;
-
-    public PortalLinkListener(Settings settings) {
+    public PortalLinkListener(Settings settings, ActiveWorldRegistry activeWorlds, GameWorldManager worldManager) {
         this.settings = settings;
+        this.activeWorlds = activeWorlds;
+        this.worldManager = worldManager;
     }
 
     public void setSettings(Settings settings) {
         this.settings = settings;
-        this.cGame = null;
-        this.cNether = null;
-        this.cEnd = null;
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
@@ -68,10 +74,31 @@ public final class PortalLinkListener implements Listener {
         e.setCanCreatePortal(true);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPortalCreate(PortalCreateEvent e) {
+        if (settings == null || !settings.worldLazyDimensions) return;
+        if (e.getReason() != PortalCreateEvent.CreateReason.FIRE) return;
+        World w = e.getWorld();
+        if (w.getEnvironment() != World.Environment.NORMAL || !activeWorlds.isGameWorld(w)) return;
+        if (e.getBlocks().isEmpty()) return;
+
+        BlockState first = e.getBlocks().getFirst();
+        worldManager.prewarmDimension(World.Environment.NETHER, first.getX() / 8, first.getZ() / 8);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAdvancement(PlayerAdvancementDoneEvent e) {
+        if (settings == null || !settings.worldLazyDimensions) return;
+        if (!FOLLOW_ENDER_EYE.equals(e.getAdvancement().getKey())) return;
+        if (!activeWorlds.isGameWorld(e.getPlayer().getWorld())) return;
+
+        worldManager.prewarmDimension(World.Environment.THE_END, 100, 0);
+    }
+
     private boolean shouldIntercept(World from, TeleportCause cause) {
         if (from == null || settings == null) return false;
 
-        if (!isGameWorld(from)) return false;
+        if (!activeWorlds.isGameWorld(from)) return false;
 
         if (cause == null) return true;
         return cause == TeleportCause.NETHER_PORTAL
@@ -79,40 +106,15 @@ public final class PortalLinkListener implements Listener {
                 || cause == TeleportCause.END_GATEWAY;
     }
 
-    private boolean isGameWorld(World w) {
-        if (w == cGame || w == cNether || w == cEnd) return true;
-
-        String name = w.getName();
-        String base = settings.gameWorld;
-
-        if (name.equals(base)) {
-            cGame = w;
-            return true;
-        }
-        if (name.equals(base + "_nether")) {
-            cNether = w;
-            return true;
-        }
-        if (name.equals(base + "_the_end")) {
-            cEnd = w;
-            return true;
-        }
-
-        return false;
-    }
-
     private Target computeTarget(Location from, TeleportCause cause) {
-        String base = settings.gameWorld;
-
-        World overworld = (cGame != null) ? cGame : Bukkit.getWorld(base);
-        World nether    = (cNether != null) ? cNether : Bukkit.getWorld(base + "_nether");
-        World theEnd    = (cEnd != null) ? cEnd : Bukkit.getWorld(base + "_the_end");
+        World overworld = activeWorlds.overworld();
 
         if (from == null || from.getWorld() == null) return null;
         World.Environment env = from.getWorld().getEnvironment();
 
         if (env == World.Environment.NORMAL) {
             if (cause == TeleportCause.NETHER_PORTAL) {
+                World nether = worldManager.loadDimension(World.Environment.NETHER);
                 if (nether == null) return null;
                 return new Target(
                         clampToBorder(nether, from.getX() / 8.0, from.getY(), from.getZ() / 8.0),
@@ -120,6 +122,7 @@ public final class PortalLinkListener implements Listener {
                 );
             }
             if (cause == TeleportCause.END_PORTAL || cause == TeleportCause.END_GATEWAY) {
+                World theEnd = worldManager.loadDimension(World.Environment.THE_END);
                 ensureEndEntryPlatform(theEnd);
                 if (theEnd == null) return null;
                 return new Target(new Location(theEnd, 100.5, 49.0, 0.5, 90f, 0f), 0, 0);
@@ -0,0 +1,136 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import top.chancelethay.minehunt.utils.Settings;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * 当前活动游戏世界组的登记处
+ *
+ * 所有需要解析“当前游戏世界”的地方都应通过此类，而不是直接拼接 settings.gameWorld + 后缀。
+ * 开启 reset.flipPromote 后，切换地图只需把指针指向已生成好的备用世界组，无需移动文件夹；
+ * 指针持久化在插件数据目录的 worlds.yml 中，重启后继续使用上次的世界组。
+ * 同一文件还记录当前世界组的上线时间，重启后对局归档仍只收录此后写盘的区块。
+ */
+public final class ActiveWorldRegistry {
+
+    private static final String FILE_NAME = "worlds.yml";
+
+    private final Settings settings;
+    private final File file;
+    private final Logger log;
+
+    private volatile String base;
+    // 当前世界组的上线时间 (毫秒)，0 = 未记录
+    private volatile long liveSince;
+
+    // 世界对象引用缓存，切换指针时清空
+    private volatile World cGame, cNether, cEnd;
+
+    public ActiveWorldRegistry(JavaPlugin plugin, Settings settings) {
+        this.settings = settings;
+        this.file = new File(plugin.getDataFolder(), FILE_NAME);
+        this.log = plugin.getLogger();
+        YamlConfiguration yml = file.isFile() ? YamlConfiguration.loadConfiguration(file) : null;
+        this.base = loadBase(yml);
+        this.liveSince = (yml == null) ? 0L : yml.getLong("liveSince", 0L);
+    }
+
+    /**
+     * 可作为游戏世界组基础名的全部候选：&lt;game&gt;, &lt;game&gt;_next, &lt;game&gt;_next2 ...
+     * 活动世界组占用其中一个，其余分配给备用池槽位。
+     */
+    public static List<String> candidateBases(Settings s) {
+        List<String> out = new ArrayList<>(s.resetPoolSize + 1);
+        out.add(s.gameWorld);
+        for (int i = 0; i < s.resetPoolSize; i++) {
+            out.add(s.gameWorld + "_next" + (i == 0 ? "" : String.valueOf(i + 1)));
+        }
+        return out;
+    }
+
+    public String getBase() { return base; }
+    public long getLiveSince() { return liveSince; }
+    public String overworldName() { return base; }
+    public String netherName() { return base + "_nether"; }
+    public String endName() { return base + "_the_end"; }
+
+    public World overworld() { return Bukkit.getWorld(overworldName()); }
+    public World nether() { return Bukkit.getWorld(netherName()); }
+    public World end() { return Bukkit.getWorld(endName()); }
+
+    /**
+     * 判断指定世界是否属于当前活动的游戏世界组。
+     */
+    public boolean isGameWorld(World w) {
+        if (w == null) return false;
+        if (w == cGame || w == cNether || w == cEnd) return true;
+
+        String name = w.getName();
+        String b = base;
+        if (name.equals(b)) {
+            cGame = w;
+            return true;
+        }
+        if (name.equals(b + "_nether")) {
+            cNether = w;
+            return true;
+        }
+        if (name.equals(b + "_the_end")) {
+            cEnd = w;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 将活动指针切换到新的世界组并持久化。
+     */
+    public void setActive(String newBase) {
+        this.base = newBase;
+        this.cGame = null;
+        this.cNether = null;
+        this.cEnd = null;
+        save();
+    }
+
+    /**
+     * 记录当前世界组的上线时间并持久化。
+     */
+    public void setLiveSince(long millis) {
+        this.liveSince = millis;
+        save();
+    }
+
+    private String loadBase(YamlConfiguration yml) {
+        if (!settings.resetFlipPromote || yml == null) return settings.gameWorld;
+
+        String stored = yml.getString("active", settings.gameWorld);
+        if (!candidateBases(settings).contains(stored)) {
+            log.warning("[Worlds] Ignoring unknown active world set in " + FILE_NAME + ": " + stored);
+            return settings.gameWorld;
+        }
+        if (!stored.equals(settings.gameWorld)) {
+            log.info("[Worlds] Resuming active world set: " + stored);
+        }
+        return stored;
+    }
+
+    private void save() {
+        try {
+            YamlConfiguration yml = new YamlConfiguration();
+            if (settings.resetFlipPromote) yml.set("active", base);
+            yml.set("liveSince", liveSince);
+            yml.save(file);
+        } catch (Throwable ex) {
+            log.warning("[Worlds] Failed to save " + FILE_NAME + " -> " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+import top.chancelethay.minehunt.utils.Tasks;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.logging.Logger;
+
+/**
+ * 内置区块预生成器
+ * 在未安装 Chunky 时使用。以指定中心按同心方环由内向外遍历圆形范围内的区块，
+ * 通过 getChunkAtAsync 异步生成，并限制同时在途的请求数量。
+ * 区块生成完成后立即提交卸载请求，由服务端在卸载时写盘，避免内存堆积。
+ */
+public final class ChunkPregenerator {
+
+    private final Tasks tasks;
+    private final Logger log;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    // 调速系数：1.0 = 满并发，0 = 暂停派发新请求
+    private volatile double budget = 1.0;
+
+    public ChunkPregenerator(Tasks tasks) {
+        this.tasks = tasks;
+        this.log = tasks.getPlugin().getLogger();
+    }
+
+    public void setBudget(double budget) {
+        this.budget = Math.clamp(budget, 0.0, 1.0);
+    }
+
+    /** 指定世界当前任务已完成的区块数，无任务时为 0 */
+    public long chunksDone(String worldName) {
+        Job job = jobs.get(worldName.toLowerCase(Locale.ROOT));
+        return job == null ? 0L : job.done;
+    }
+
+    public boolean isRunning(String worldName) {
+        return jobs.containsKey(worldName.toLowerCase(Locale.ROOT));
+    }
+
+    public void start(World world, int centerX, int centerZ, int radiusBlocks, int maxInFlight,
+                      IntConsumer onProgress, Runnable onComplete) {
+        cancel(world.getName());
+        Job job = new Job(world, centerX >> 4, centerZ >> 4, radiusBlocks, maxInFlight, onProgress, onComplete);
+        jobs.put(world.getName().toLowerCase(Locale.ROOT), job);
+        job.task = tasks.repeat(job::tick, 1L, 1L);
+        log.info("[Pregen] Started built-in pregeneration: " + world.getName() + " (" + job.total + " chunks)");
+    }
+
+    public void cancel(String worldName) {
+        Job job = jobs.remove(worldName.toLowerCase(Locale.ROOT));
+        if (job != null) {
+            job.cancelled = true;
+            tasks.cancel(job.task);
+        }
+    }
+
+    private final class Job {
+        final World world;
+        final int centerChunkX;
+        final int centerChunkZ;
+        final int maxInFlight;
+        final IntConsumer onProgress;
+        final Runnable onComplete;
+        final Spiral spiral;
+        final int total;
+        final int[] next = new int[2];
+
+        BukkitTask task;
+        int inFlight = 0;
+        int done = 0;
+        int lastPercent = -1;
+        boolean cancelled = false;
+        boolean exhausted = false;
+
+        Job(World world, int centerChunkX, int centerChunkZ, int radiusBlocks, int maxInFlight,
+            IntConsumer onProgress, Runnable onComplete) {
+            this.world = world;
+            this.centerChunkX = centerChunkX;
+            this.centerChunkZ = centerChunkZ;
+            this.maxInFlight = Math.max(1, maxInFlight);
+            this.onProgress = onProgress;
+            this.onComplete = onComplete;
+
+            int radiusChunks = (Math.max(0, radiusBlocks) + 15) >> 4;
+            this.spiral = new Spiral(radiusChunks);
+            Spiral counter = new Spiral(radiusChunks);
+            int n = 0;
+            while (counter.next(next)) n++;
+            this.total = n;
+        }
+
+        void tick() {
+            if (cancelled) return;
+
+            double b = budget;
+            int limit = (b <= 0.0) ? 0 : Math.max(1, (int) Math.round(maxInFlight * b));
+
+            while (!exhausted && inFlight < limit) {
+                if (!spiral.next(next)) {
+                    exhausted = true;
+                    break;
+                }
+                final int cx = centerChunkX + next[0];
+                final int cz = centerChunkZ + next[1];
+                inFlight++;
+                world.getChunkAtAsync(cx, cz, true).whenComplete((chunk, ex) -> {
+                    // Paper 在主线程完成该 Future
+                    inFlight--;
+                    done++;
+                    if (ex != null) {
+                        log.warning("[Pregen] Chunk " + cx + "," + cz + " failed in " + world.getName() + " -> " + ex.getMessage());
+                    } else {
+                        world.unloadChunkRequest(cx, cz);
+                    }
+                    reportProgress();
+                });
+            }
+
+            if (exhausted && inFlight == 0) {
+                jobs.remove(world.getName().toLowerCase(Locale.ROOT), this);
+                tasks.cancel(task);
+                log.info("[Pregen] Finished built-in pregeneration: " + world.getName());
+                if (!cancelled && onComplete != null) onComplete.run();
+            }
+        }
+
+        void reportProgress() {
+            if (cancelled || onProgress == null) return;
+            int pct = total == 0 ? 100 : (int) ((done * 100L) / total);
+            if (pct != lastPercent) {
+                lastPercent = pct;
+                onProgress.accept(pct);
+            }
+        }
+    }
+
+    /**
+     * 同心方环遍历，仅返回落在圆内的区块坐标。
+     */
+    private static final class Spiral {
+        final int radius;
+        final long r2;
+        int ring = 0;
+        int idx = 0;
+
+        Spiral(int radiusChunks) {
+            this.radius = radiusChunks;
+            this.r2 = (long) radiusChunks * radiusChunks;
+        }
+
+        boolean next(int[] out) {
+            while (ring <= radius) {
+                int count = (ring == 0) ? 1 : 8 * ring;
+                while (idx < count) {
+                    int i = idx++;
+                    int x, z;
+                    if (ring == 0) {
+                        x = 0;
+                        z = 0;
+                    } else {
+                        int side = i / (2 * ring);
+                        int off = i % (2 * ring);
+                        switch (side) {
+                            case 0 -> { x = -ring + off; z = -ring; }
+                            case 1 -> { x = ring; z = -ring + off; }
+                            case 2 -> { x = ring - off; z = ring; }
+                            default -> { x = -ring; z = ring - off; }
+                        }
+                    }
+                    if ((long) x * x + (long) z * z <= r2) {
+                        out[0] = x;
+                        out[1] = z;
+                        return true;
+                    }
+                }
+                ring++;
+                idx = 0;
+            }
+            return false;
+        }
+    }
+}
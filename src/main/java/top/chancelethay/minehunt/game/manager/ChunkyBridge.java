@@ -0,0 +1,103 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.Bukkit;
+import org.popcraft.chunky.api.ChunkyAPI;
+import org.popcraft.chunky.api.event.task.GenerationCompleteEvent;
+import org.popcraft.chunky.api.event.task.GenerationProgressEvent;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chunky API 封装
+ * 所有对 Chunky 类的引用都集中在此类中，未安装 Chunky 时不会实例化此类，避免类加载失败。
+ *
+ * Chunky 没有注销回调的接口，因此每个 API 实例只注册一对进度/完成监听，
+ * 事件按世界名转交给 {@link Sink}，由任务登记处分发给对应任务。
+ */
+public final class ChunkyBridge {
+
+    /** 事件接收方；回调在 Chunky 的生成线程上执行 */
+    public interface Sink {
+        void onProgress(String worldName, float percent, long chunks);
+        void onComplete(String worldName);
+    }
+
+    private final Sink sink;
+
+    // 已注册监听的 API 实例；Chunky 重载后会换成新实例，需要重新注册
+    private ChunkyAPI boundApi;
+
+    // 当前由本插件启动且尚未完成的任务
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+    private final Set<String> pausedJobs = ConcurrentHashMap.newKeySet();
+
+    public ChunkyBridge(Sink sink) {
+        this.sink = sink;
+    }
+
+    private ChunkyAPI loadChunkyAPIOrThrow() {
+        ChunkyAPI api = Bukkit.getServer().getServicesManager().load(ChunkyAPI.class);
+        if (api == null) throw new IllegalStateException("ChunkyAPI service not found or not enabled.");
+        return api;
+    }
+
+    private void bindListeners(ChunkyAPI api) {
+        if (api == boundApi) return;
+        boundApi = api;
+
+        api.onGenerationProgress((GenerationProgressEvent ev) -> {
+            if (!activeJobs.contains(ev.world())) return;
+            sink.onProgress(ev.world(), ev.progress(), ev.chunks());
+        });
+
+        api.onGenerationComplete((GenerationCompleteEvent ev) -> {
+            if (!activeJobs.remove(ev.world())) return;
+            pausedJobs.remove(ev.world());
+            sink.onComplete(ev.world());
+        });
+    }
+
+    /**
+     * 启动以 (centerX, centerZ) 为中心的圆形预生成任务。
+     */
+    public void startJobOrThrow(String worldName, int centerX, int centerZ, int radiusBlocks) {
+        ChunkyAPI chunky = loadChunkyAPIOrThrow();
+        bindListeners(chunky);
+        final int r = Math.max(0, radiusBlocks);
+
+        activeJobs.add(worldName);
+        boolean started = chunky.startTask(worldName, "circle", centerX, centerZ, r, r, "concentric");
+        if (!started) {
+            activeJobs.remove(worldName);
+            throw new IllegalStateException("Chunky startTask returned false for world " + worldName);
+        }
+    }
+
+    /**
+     * 暂停或恢复本插件启动的全部任务。
+     */
+    public void setPaused(boolean paused) {
+        try {
+            ChunkyAPI chunky = loadChunkyAPIOrThrow();
+            for (String world : activeJobs) {
+                if (paused && pausedJobs.add(world)) {
+                    chunky.pauseTask(world);
+                } else if (!paused && pausedJobs.remove(world)) {
+                    chunky.continueTask(world);
+                }
+            }
+        } catch (Throwable ignored) {}
+    }
+
+    public void cancelJob(String worldName) {
+        activeJobs.remove(worldName);
+        pausedJobs.remove(worldName);
+        try {
+            ChunkyAPI chunky = loadChunkyAPIOrThrow();
+            if (chunky.isRunning(worldName)) {
+                chunky.cancelTask(worldName);
+            }
+        } catch (Throwable ignored) {}
+    }
+}
@@ -0,0 +1,124 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import top.chancelethay.minehunt.utils.Settings;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * 探索范围历史
+ *
+ * 每局结束后记录一行摘要 (各维度首次到访区块距中心距离的 95 分位、到访区块数、进入下界的时间)，
+ * 保存在插件数据目录的 exploration-history.yml 中，只保留最近若干局。
+ * 据此为下一组世界推荐各维度的预生成半径，不再生成没人去的外圈。
+ */
+public final class ExplorationHistory {
+
+    private static final String FILE_NAME = "exploration-history.yml";
+    private static final int ROUND_TO = 32;
+    private static final double MARGIN = 1.15;
+
+    /** 单局摘要，半径单位为方块；未到访的维度半径为 0 */
+    public record Round(int[] p95Radius, int[] chunks, int netherAtSec, int durationSec) {}
+
+    private final File file;
+    private final Logger log;
+    private final List<Round> rounds = new ArrayList<>();
+
+    public ExplorationHistory(Plugin plugin) {
+        this.file = new File(plugin.getDataFolder(), FILE_NAME);
+        this.log = plugin.getLogger();
+        load();
+    }
+
+    public int size() { return rounds.size(); }
+
+    public void add(Round round, int keep) {
+        rounds.add(round);
+        while (rounds.size() > Math.max(1, keep)) rounds.removeFirst();
+        save();
+        log.info("[Explore] Round recorded: radius O " + round.p95Radius()[0] + " / N " + round.p95Radius()[1]
+                + " / E " + round.p95Radius()[2] + ", chunks " + Arrays.toString(round.chunks())
+                + ", nether at " + round.netherAtSec() + " s");
+    }
+
+    /**
+     * 推荐的各维度预生成半径。历史不足 minRounds 局时返回 null，由调用方使用静态配置。
+     * 取各局 95 分位半径的 80 分位，加 15% 余量并向上取整到 32 格，再限制在 [min, max] 内。
+     * 历史中从未到访的维度 (如末地) 沿用静态配置。
+     */
+    public int[] recommend(Settings s, int[] fallback) {
+        if (rounds.size() < s.worldPreloadAdaptiveMinRounds) return null;
+
+        int[] out = new int[3];
+        for (int dim = 0; dim < 3; dim++) {
+            int[] values = new int[rounds.size()];
+            int visited = 0;
+            for (int i = 0; i < rounds.size(); i++) {
+                int r = rounds.get(i).p95Radius()[dim];
+                values[i] = r;
+                if (r > 0) visited++;
+            }
+            if (visited == 0) {
+                out[dim] = fallback[dim];
+                continue;
+            }
+            Arrays.sort(values);
+            int p80 = values[Math.min(values.length - 1, (int) Math.ceil(values.length * 0.8) - 1)];
+            int r = (int) Math.ceil(p80 * MARGIN / ROUND_TO) * ROUND_TO;
+            int min = dim == 1 ? s.worldPreloadAdaptiveMinRadius / 8 : s.worldPreloadAdaptiveMinRadius;
+            int max = dim == 1 ? s.worldPreloadAdaptiveMaxRadius / 8 : s.worldPreloadAdaptiveMaxRadius;
+            out[dim] = Math.clamp(r, min, Math.max(min, max));
+        }
+        return out;
+    }
+
+    private void load() {
+        if (!file.isFile()) return;
+        YamlConfiguration yml = YamlConfiguration.loadConfiguration(file);
+        for (Map<?, ?> m : yml.getMapList("rounds")) {
+            try {
+                rounds.add(new Round(
+                        new int[]{num(m, "o"), num(m, "n"), num(m, "e")},
+                        new int[]{num(m, "co"), num(m, "cn"), num(m, "ce")},
+                        num(m, "nether"),
+                        num(m, "sec")));
+            } catch (Throwable ignored) {}
+        }
+    }
+
+    private static int num(Map<?, ?> m, String key) {
+        Object v = m.get(key);
+        return (v instanceof Number n) ? n.intValue() : 0;
+    }
+
+    private void save() {
+        List<Map<String, Object>> list = new ArrayList<>(rounds.size());
+        for (Round r : rounds) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("o", r.p95Radius()[0]);
+            m.put("n", r.p95Radius()[1]);
+            m.put("e", r.p95Radius()[2]);
+            m.put("co", r.chunks()[0]);
+            m.put("cn", r.chunks()[1]);
+            m.put("ce", r.chunks()[2]);
+            m.put("nether", r.netherAtSec());
+            m.put("sec", r.durationSec());
+            list.add(m);
+        }
+        try {
+            YamlConfiguration yml = new YamlConfiguration();
+            yml.set("rounds", list);
+            yml.save(file);
+        } catch (Throwable ex) {
+            log.warning("[Explore] Failed to save " + FILE_NAME + " -> " + ex.getMessage());
+        }
+    }
+}
@@ -3,19 +3,17 @@ package top.chancelethay.minehunt.game.manager;
 import org.bukkit.*;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
-import org.bukkit.scheduler.BukkitRunnable;
 import top.chancelethay.minehunt.utils.Settings;
 import top.chancelethay.minehunt.game.GameState;
 import top.chancelethay.minehunt.game.PlayerRole;
 import top.chancelethay.minehunt.game.WinReason;
+import top.chancelethay.minehunt.game.listener.ExplorationRecorder;
 import top.chancelethay.minehunt.game.listener.LobbyListener;
 import top.chancelethay.minehunt.game.listener.TrackingListener;
 import top.chancelethay.minehunt.utils.MessageService;
 import top.chancelethay.minehunt.utils.Tasks;
 
 import java.util.UUID;
-import java.util.LinkedList;
-import java.util.Queue;
 
 /**
  * 游戏主控制器
@@ -32,6 +30,8 @@ public final class GameManager {
     private final SpawnScatterManager spawnScatterManager;
     private final TrackingListener trackingListener;
     private PlayerRoleManager playerRoleManager;
+    private ExplorationRecorder explorationRecorder;
+    private TeleportPlanner teleportPlanner;
 
     private GameState state = GameState.LOBBY;
     private boolean rolesLocked = false;
@@ -67,6 +67,30 @@ public final class GameManager {
         this.lobbyListener = lobbyListener;
     }
 
+    public void setExplorationRecorder(ExplorationRecorder explorationRecorder) {
+        this.explorationRecorder = explorationRecorder;
+    }
+
+    public void setTeleportPlanner(TeleportPlanner teleportPlanner) {
+        this.teleportPlanner = teleportPlanner;
+    }
+
+    /**
+     * 对下界/末地应用对局规则。下界/末地按需加载时，由 GameWorldManager 在加载后回调，
+     * 规则与开局时对已加载维度设置的一致；对局进行中以外旁观者可生成区块。
+     */
+    public void applyDimensionRules(World dim) {
+        applyDimensionRules(dim, state != GameState.RUNNING && state != GameState.COUNTDOWN);
+    }
+
+    private void applyDimensionRules(World dim, boolean spectatorsGenerateChunks) {
+        if (dim == null) return;
+        dim.setGameRule(GameRules.LOCATOR_BAR, false);
+        dim.setGameRule(GameRules.SPECTATORS_GENERATE_CHUNKS, spectatorsGenerateChunks);
+        dim.getWorldBorder().setCenter(0.0, 0.0);
+        dim.getWorldBorder().setSize(11520.0);
+    }
+
     public GameState getState() {
         return state;
     }
@@ -148,7 +172,8 @@ public final class GameManager {
         }
         ending = false;
 
-        World gameWorld = Bukkit.getWorld(settings.gameWorld);
+        ActiveWorldRegistry active = gameWorldManager.getActiveWorlds();
+        World gameWorld = active.overworld();
         if (gameWorld != null) {
             gameWorld.setTime(0L);
             gameWorld.setStorm(false);
@@ -166,14 +191,8 @@ public final class GameManager {
             border.setCenter(0.0, 0.0);
             border.setSize(11520.0);
 
-            for (String suffix : new String[]{"_nether", "_the_end"}) {
-                World dim = Bukkit.getWorld(settings.gameWorld + suffix);
-                if (dim != null) {
-                    dim.setGameRule(GameRules.LOCATOR_BAR, false);
-                    dim.setGameRule(GameRules.SPECTATORS_GENERATE_CHUNKS, false);
-                    dim.getWorldBorder().setCenter(0.0, 0.0);
-                    dim.getWorldBorder().setSize(11520.0);
-                }
+            for (World dim : new World[]{active.nether(), active.end()}) {
+                applyDimensionRules(dim, false);
             }
         }
 
@@ -197,6 +216,7 @@ public final class GameManager {
         spawnScatterManager.performSpawnsAsync(gameWorld, () -> {
             state = GameState.RUNNING;
             roundStartMillis = System.currentTimeMillis();
+            if (explorationRecorder != null) explorationRecorder.beginRound();
 
             if (disconnectWatchdog != null) tasks.cancel(disconnectWatchdog);
             disconnectWatchdog = tasks.repeat(() -> {
@@ -215,6 +235,10 @@ public final class GameManager {
 
             msg.broadcast(forced ? "forcestart.begun" : "game.begun");
 
+            // 对局期间以低优先级提前准备下一组世界：区块预生成按调速器预算降速，
+            // 创建/卸载/保存世界等一次性操作在调速器报告 MSPT 余量时逐个执行，余量不足时推迟到对局结束
+            gameWorldManager.prepareNextWorlds(settings, settings.resetRandomSeedEachRound);
+
             tasks.later(() -> {
                 if (state == GameState.RUNNING) {
                     msg.broadcastList("rules.announce");
@@ -266,6 +290,8 @@ public final class GameManager {
         }
 
         try { if (trackingListener != null) trackingListener.onRoundEnd(); } catch (Throwable ignored) {}
+        try { if (explorationRecorder != null) explorationRecorder.endRound(); } catch (Throwable ignored) {}
+        try { spawnScatterManager.clearRoundCache(); } catch (Throwable ignored) {}
 
         if (disconnectWatchdog != null) {
             tasks.cancel(disconnectWatchdog);
@@ -274,13 +300,14 @@ public final class GameManager {
 
         state = GameState.ENDED;
         roundStartMillis = 0L;
+        gameWorldManager.onRoundEnded();
 
-        World gw = Bukkit.getWorld(settings.gameWorld);
+        ActiveWorldRegistry active = gameWorldManager.getActiveWorlds();
+        World gw = active.overworld();
         if (gw != null) {
             gw.setGameRule(GameRules.SPECTATORS_GENERATE_CHUNKS, true);
         }
-        for (String suffix : new String[]{"_nether", "_the_end"}) {
-            World dim = Bukkit.getWorld(settings.gameWorld + suffix);
+        for (World dim : new World[]{active.nether(), active.end()}) {
             if (dim != null) {
                 dim.setGameRule(GameRules.SPECTATORS_GENERATE_CHUNKS, true);
             }
@@ -289,7 +316,7 @@ public final class GameManager {
         Location finalSpectateLoc = null;
 
         if (reason == WinReason.RUNNERS_Kill_Dragon) {
-            World endWorld = Bukkit.getWorld(settings.gameWorld + "_the_end");
+            World endWorld = active.end();
             if (endWorld != null) {
                 finalSpectateLoc = new Location(endWorld, 0.5, 70.0, 0.5);
             }
@@ -350,40 +377,31 @@ public final class GameManager {
 
         msg.broadcast("game.post.reset.schedule", delaySec);
 
-        if (!gameWorldManager.isNextPreparing() && !gameWorldManager.isNextReady()) {
-            gameWorldManager.prepareNextWorlds(settings, settings.resetRandomSeedEachRound);
-        }
+        gameWorldManager.prepareNextWorlds(settings, settings.resetRandomSeedEachRound);
 
         tasks.later(() -> {
             World lobbyWorld = Bukkit.getWorld(settings.lobbyWorld);
 
-            Queue<Player> queue = new LinkedList<>(Bukkit.getOnlinePlayers());
-
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    for (int i = 0; i < 5 && !queue.isEmpty(); i++) {
-                        Player p = queue.poll();
-                        if (p == null || !p.isOnline()) continue;
-
-                        try {
-                            playerRoleManager.setRole(p, PlayerRole.LOBBY, false);
-
-                            if (lobbyWorld != null && p.getWorld() != lobbyWorld) {
-                                p.teleport(lobbyWorld.getSpawnLocation());
-                            }
-                            p.setGameMode(GameMode.ADVENTURE);
+            // 传送由计划器按 MSPT 分批执行 (与 setRole 中的传送合并)，全部落地后再切换世界
+            for (Player p : Bukkit.getOnlinePlayers()) {
+                try {
+                    playerRoleManager.setRole(p, PlayerRole.LOBBY, false);
 
-                        } catch (Throwable ignoredOuter) {}
+                    // 排队期间玩家仍在游戏世界中，落地后再切换为冒险模式
+                    if (lobbyWorld != null && p.getWorld() != lobbyWorld) {
+                        teleportPlanner.submit(p, lobbyWorld.getSpawnLocation(),
+                                landed -> landed.setGameMode(GameMode.ADVENTURE));
+                    } else {
+                        p.setGameMode(GameMode.ADVENTURE);
                     }
 
-                    if (queue.isEmpty()) {
-                        this.cancel();
-                        playerRoleManager.refreshBoard();
-                        gameWorldManager.promoteWhenReady(settings, onResetDone);
-                    }
-                }
-            }.runTaskTimer(tasks.getPlugin(), 0L, 1L);
+                } catch (Throwable ignoredOuter) {}
+            }
+
+            teleportPlanner.whenIdle().thenRun(() -> {
+                playerRoleManager.refreshBoard();
+                gameWorldManager.promoteWhenReady(settings).thenRun(onResetDone);
+            });
 
         }, delaySec * 20L);
     }
@@ -414,7 +432,7 @@ public final class GameManager {
         if (state == GameState.COUNTDOWN) {
             int min = Math.max(2, settings.autoStartMinPlayers);
             if (onlineAfterQuit < min
-                    || (gameWorldManager != null && (gameWorldManager.isResetting() || gameWorldManager.isNextPreparing()))) {
+                    || (gameWorldManager != null && gameWorldManager.isResetting())) {
 
                 if (countdownTask != null) {
                     tasks.cancel(countdownTask);
@@ -474,8 +492,8 @@ public final class GameManager {
 
     private boolean canStartNow() {
         if (gameWorldManager != null) {
+            // 备用池在后台持续补充，仅在切换地图期间阻止开局
             if (gameWorldManager.isResetting()) return false;
-            if (gameWorldManager.isNextPreparing()) return false;
         }
 
         int online = Bukkit.getOnlinePlayers().size();
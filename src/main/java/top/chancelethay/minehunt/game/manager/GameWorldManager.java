@@ -1,31 +1,49 @@
 package top.chancelethay.minehunt.game.manager;
 
+import net.kyori.adventure.util.TriState;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.WorldType;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.jetbrains.annotations.NotNull;
-import org.jspecify.annotations.NonNull;
-import org.popcraft.chunky.api.ChunkyAPI;
-import org.popcraft.chunky.api.event.task.GenerationCompleteEvent;
-import org.popcraft.chunky.api.event.task.GenerationProgressEvent;
+import org.bukkit.scheduler.BukkitTask;
+import top.chancelethay.minehunt.game.listener.DirtyChunkTracker;
+import top.chancelethay.minehunt.utils.RegionFileIO;
 import top.chancelethay.minehunt.utils.Settings;
 import top.chancelethay.minehunt.utils.Tasks;
+import top.chancelethay.minehunt.utils.TrashPurger;
+import top.chancelethay.minehunt.utils.WorldArchiver;
+import top.chancelethay.minehunt.utils.WorldFiles;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.logging.Logger;
 
 /**
  * 游戏世界管理器
  * 负责游戏地图的生命周期管理，包括：
  * - 初始化加载
- * - 后台预生成 (_next 世界)
+ * - 后台预生成备用世界池 (_next, _next2 ...)
  * - 地图重置与切换 (Promote)
  * 采用异步 I/O 和时间切片技术来最大限度减少对主线程的影响。
  */
@@ -33,156 +51,1306 @@ public final class GameWorldManager {
     private final Tasks tasks;
     private final Logger log;
 
-    private final AtomicBoolean resetting = new AtomicBoolean(false);
-    private final AtomicBoolean nextPreparing = new AtomicBoolean(false);
-    private final AtomicBoolean nextReady     = new AtomicBoolean(false);
-    private volatile int nextProgressPercent = 0;
+    private static final String[] DIMENSION_SUFFIXES = {"", "_nether", "_the_end"};
+    private static final String TRASH_DIR = ".trash";
+    private static final String SEED_CACHE_DIR = ".worldcache";
+    private static final String TEMPLATE_SUFFIX = "_template";
+    private static final String TEMPLATE_MARKER = "minehunt-template.properties";
+    // uid.dat 必须由服务端重新生成，否则克隆出的世界会与模板 UID 冲突
+    private static final Set<String> CLONE_SKIP = Set.of("uid.dat", "session.lock", TEMPLATE_MARKER);
+    private static final Set<String> REGION_DIRS = Set.of("region", "entities", "poi");
+    private static final DateTimeFormatter ARCHIVE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    // 有切换在等待时槽位准备失败的重试：连续失败次数上限与首次退避 (之后逐次翻倍)
+    private static final int PREPARE_MAX_RETRIES = 5;
+    private static final long PREPARE_RETRY_TICKS = 100L;
 
-    public GameWorldManager(Tasks tasks) {
+    /**
+     * 备用世界流水线的整体状态。
+     * PROMOTING 期间独占；其余状态由各槽位状态推导，只在主线程更新。
+     */
+    public enum Lifecycle { IDLE, PREPARING, READY, PROMOTING }
+
+    private final AtomicReference<Lifecycle> lifecycle = new AtomicReference<>(Lifecycle.IDLE);
+    // 有槽位可用 (或可局部恢复) 时完成；全部被取用后换成新的未完成 Future
+    private volatile CompletableFuture<Void> readyFuture = new CompletableFuture<>();
+    // 进行中的切换结束时完成；切换期间到达的请求挂在上面，不会被丢弃
+    private volatile CompletableFuture<Void> promoteDone = CompletableFuture.completedFuture(null);
+    // 正在等待可用槽位的切换数，以及等待期间连续准备失败的次数；只在主线程访问
+    private int promoteWaiters = 0;
+    private int prepareFailures = 0;
+    private Settings lifecycleSettings;
+
+    // 脏区块追踪；liveTracked 表示当前世界组自恢复为模板状态以来一直处于追踪中
+    private DirtyChunkTracker dirtyChunks;
+    private volatile boolean liveTracked = false;
+
+    // 世界目录回收站；游戏世界放在独立文件系统时，该文件系统另有一个回收站
+    private TrashPurger trash;
+    private TrashPurger gameTrash;
+
+    // 对局世界归档 (null = 未启用)；liveSinceMillis 为当前世界组上线时间 (随活动指针记录在 worlds.yml)，之后写盘的区块才会归档
+    private WorldArchiver archiver;
+    private volatile long liveSinceMillis = System.currentTimeMillis();
+
+    // 世界目录位置 (游戏世界可位于独立目录，世界容器中放符号链接)
+    private WorldDirs dirs;
+
+    // 备用世界池：每个槽位对应一组 (主世界/下界/末地) 预生成世界
+    private final List<PoolSlot> pool = new ArrayList<>();
+
+    // 预生成后端
+    private final PregenJobRegistry pregenJobs;
+    private PregenGovernor governor;
+    private BooleanSupplier roundRunning = () -> false;
+    // 本局结束时完成；对局中等待余量的备用世界步骤同时挂在上面，对局结束即继续
+    private volatile CompletableFuture<Void> roundEnded = new CompletableFuture<>();
+
+    // 当前活动世界组指针
+    private final ActiveWorldRegistry activeWorlds;
+
+    // 预生成日志，用于重启后采用或续做备用世界组
+    private final WorldPrepJournal journal;
+
+    // 探索范围历史与据此推荐的预生成半径 (null = 使用静态配置)
+    private final ExplorationHistory exploration;
+    private volatile int[] adaptiveRadii;
+
+    // 按种子缓存的预生成世界组
+    private final WorldSetCache seedCache;
+
+    // 下界/末地按需加载：加载后的规则回调，以及大厅/赛后的空闲卸载
+    private Consumer<World> dimensionLoadedHook = w -> {};
+
+    // 主世界预生成完成后的回调 (构建出生点索引)，完成后须调用传入的 Runnable 继续流水线
+    private BiConsumer<World, Runnable> overworldPreloadedHook = (w, next) -> next.run();
+    private BukkitTask idleUnloadTask;
+    private final Map<String, Long> idleSince = new HashMap<>();
+
+    public GameWorldManager(Tasks tasks, ActiveWorldRegistry activeWorlds) {
         this.tasks = tasks;
+        this.activeWorlds = activeWorlds;
         this.log = tasks.getPlugin().getLogger();
+        this.pregenJobs = new PregenJobRegistry(tasks);
+        this.journal = new WorldPrepJournal(tasks.getPlugin());
+        this.exploration = new ExplorationHistory(tasks.getPlugin());
+        this.seedCache = new WorldSetCache(new File(Bukkit.getWorldContainer(), SEED_CACHE_DIR).toPath(), log);
+    }
+
+    public ExplorationHistory getExplorationHistory() {
+        return exploration;
+    }
+
+    /**
+     * 记录一局的探索摘要，并重新计算后续世界组的预生成半径。
+     * 已在生成或已完成的世界组不受影响。
+     */
+    public void recordExploration(Settings s, ExplorationHistory.Round round) {
+        exploration.add(round, s.worldPreloadAdaptiveHistorySize);
+        refreshAdaptiveRadii(s);
+    }
+
+    private void refreshAdaptiveRadii(Settings s) {
+        int[] before = adaptiveRadii;
+        adaptiveRadii = s.worldPreloadAdaptiveEnabled ? exploration.recommend(s, configuredRadii(s)) : null;
+        int[] after = adaptiveRadii;
+        if (after != null && !Arrays.equals(before, after)) {
+            log.info("[Explore] Adaptive pregeneration radius: O " + after[0] + " / N " + after[1] + " / E " + after[2]
+                    + " (from " + exploration.size() + " rounds)");
+        }
+    }
+
+    /** 备用槽位状态 */
+    public enum SlotState { EMPTY, PREPARING, READY }
+
+    /** 槽位状态快照，供 /mh status 展示 */
+    public record SlotStatus(int index, String baseName, SlotState state, int progressPercent,
+                             int overworldPercent, int netherPercent, int endPercent) {}
+
+    private static final class PoolSlot {
+        final int index;
+        // A/B 切换模式下，槽位被取用后改为持有旧的活动世界组名，以便在后台回收重建
+        volatile String base;
+        volatile SlotState state = SlotState.EMPTY;
+        // 各维度 (主世界/下界/末地) 的预生成进度与半径，总进度按面积加权
+        final AtomicIntegerArray dimProgress = new AtomicIntegerArray(3);
+        volatile int[] dimRadius = {1, 0, 0};
+
+        PoolSlot(int index, String base) {
+            this.index = index;
+            this.base = base;
+        }
+
+        void resetProgress(int[] radii) {
+            dimRadius = radii;
+            for (int i = 0; i < 3; i++) dimProgress.set(i, 0);
+        }
+
+        void markComplete() {
+            for (int i = 0; i < 3; i++) dimProgress.set(i, 100);
+        }
+
+        int[] progressSnapshot() {
+            return new int[]{dimProgress.get(0), dimProgress.get(1), dimProgress.get(2)};
+        }
+
+        int progressPercent() {
+            int[] r = dimRadius;
+            double total = 0.0, done = 0.0;
+            for (int i = 0; i < 3; i++) {
+                double w = (double) r[i] * r[i];
+                total += w;
+                done += w * Math.clamp(dimProgress.get(i), 0, 100);
+            }
+            return total <= 0.0 ? 100 : (int) Math.round(done / total);
+        }
+    }
+
+    public void setDirtyChunkTracker(DirtyChunkTracker tracker) {
+        this.dirtyChunks = tracker;
+    }
+
+    /** 下界/末地按需加载后回调，用于补上对局规则 */
+    public void setDimensionLoadedHook(Consumer<World> hook) {
+        this.dimensionLoadedHook = hook;
+    }
+
+    /** 世界组预生成完成、卸载之前回调 (主世界仍处于加载状态)，用于补建缺失或过期的出生点索引 */
+    public void setOverworldPreloadedHook(BiConsumer<World, Runnable> hook) {
+        this.overworldPreloadedHook = (hook != null) ? hook : (w, next) -> next.run();
+    }
+
+    /** 注入“对局是否进行中”的判定，调速器据此选择阈值，对局中备用世界的创建/卸载/保存须等待 MSPT 余量 */
+    public void setRoundRunningSupplier(BooleanSupplier roundRunning) {
+        this.roundRunning = roundRunning;
+    }
+
+    /** 对局结束时由 GameManager 调用，放行对局中推迟的备用世界步骤 */
+    public void onRoundEnded() {
+        CompletableFuture<Void> ended = roundEnded;
+        roundEnded = new CompletableFuture<>();
+        ended.complete(null);
     }
 
     // ---------- 状态查询 ----------
-    public boolean isResetting() { return resetting.get(); }
-    public boolean isNextPreparing() { return nextPreparing.get(); }
-    public boolean isNextReady()     { return nextReady.get(); }
-    public int getNextProgressPercent() { return Math.clamp(nextProgressPercent, 0, 100); }
+    public ActiveWorldRegistry getActiveWorlds() { return activeWorlds; }
+
+    public boolean isResetting() { return lifecycle.get() == Lifecycle.PROMOTING; }
+    public Lifecycle getLifecycle() { return lifecycle.get(); }
+
+    /**
+     * 下一次可以切换地图时完成的 Future，回调在主线程执行。
+     */
+    public CompletableFuture<Void> whenReady() { return readyFuture; }
+    public boolean isNextPreparing() { return findSlot(SlotState.PREPARING) != null; }
+    public boolean isNextReady()     { return findSlot(SlotState.READY) != null; }
+
+    public int getNextProgressPercent() {
+        if (isNextReady()) return 100;
+        PoolSlot prep = findSlot(SlotState.PREPARING);
+        return prep == null ? 0 : prep.progressPercent();
+    }
+
+    public WorldSetCache getSeedCache() { return seedCache; }
+    public WorldArchiver getArchiver() { return archiver; }
+
+    public int getTrashPendingTrees() {
+        return (trash == null ? 0 : trash.getPendingTrees()) + (gameTrash == null ? 0 : gameTrash.getPendingTrees());
+    }
+    public long getTrashFreedFiles() {
+        return (trash == null ? 0L : trash.getFreedFiles()) + (gameTrash == null ? 0L : gameTrash.getFreedFiles());
+    }
+    public long getTrashFreedBytes() {
+        return (trash == null ? 0L : trash.getFreedBytes()) + (gameTrash == null ? 0L : gameTrash.getFreedBytes());
+    }
+
+    public List<SlotStatus> getPoolStatus() {
+        List<SlotStatus> out = new ArrayList<>(pool.size());
+        for (PoolSlot slot : pool) {
+            out.add(new SlotStatus(slot.index, slot.base, slot.state, slot.progressPercent(),
+                    slot.dimProgress.get(0), slot.dimProgress.get(1), slot.dimProgress.get(2)));
+        }
+        return out;
+    }
 
     // ---------- 初始化 ----------
     public void ensureWorlds(Settings s) {
+        initDirs(s);
         ensureWorld(s.lobbyWorld, World.Environment.NORMAL);
-        ensureWorld(s.gameWorld, World.Environment.NORMAL);
-        ensureWorld(s.gameWorld + "_nether", World.Environment.NETHER);
-        ensureWorld(s.gameWorld + "_the_end", World.Environment.THE_END);
+        String gw = activeWorlds.getBase();
+        ensureWorld(gw, World.Environment.NORMAL);
+        if (!s.worldLazyDimensions) {
+            ensureWorld(gw + "_nether", World.Environment.NETHER);
+            ensureWorld(gw + "_the_end", World.Environment.THE_END);
+        }
+        applyLiveWorldFlags(s);
+        restoreLiveSince();
+        initPool(s);
+        initTrash(s);
+        initArchiver(s);
+        initGovernor(s);
+        initIdleUnload(s);
+
+        // 启动后立即在后台开始填充备用池 (含续做日志中中断的世界组)，而不是等到第一局结束
+        tasks.later(() -> prepareNextWorlds(s, s.resetRandomSeedEachRound), 100L);
+    }
+
+    /**
+     * 沿用 worlds.yml 中记录的上线时间；尚无记录时 (首次启动或旧版本) 以本次启动时间为准并写入。
+     */
+    private void restoreLiveSince() {
+        long stored = activeWorlds.getLiveSince();
+        if (stored > 0L) {
+            liveSinceMillis = stored;
+        } else {
+            activeWorlds.setLiveSince(liveSinceMillis);
+        }
+    }
+
+    /** 当前世界组刚上线：记录并持久化上线时间 */
+    private void markLive() {
+        liveSinceMillis = System.currentTimeMillis();
+        activeWorlds.setLiveSince(liveSinceMillis);
+    }
+
+    /** 预生成调速器当前的主线程预算 (0..1)，尚未启动时为 1 */
+    public double getPregenBudget() {
+        return (governor == null) ? 1.0 : governor.getBudget();
+    }
+
+    private void initGovernor(Settings s) {
+        if (governor != null) return;
+        governor = new PregenGovernor(tasks, s, () -> roundRunning.getAsBoolean(), pregenJobs::applyThrottle);
+        governor.start();
+    }
+
+    // ---------- 下界/末地按需加载 ----------
+
+    /**
+     * 取得活动世界组的指定维度；未加载时立即加载 (目录不存在时以主世界种子创建) 并回调规则钩子。
+     * 须在主线程调用。切换地图期间返回 null。
+     */
+    public World loadDimension(World.Environment env) {
+        String name = switch (env) {
+            case NETHER -> activeWorlds.netherName();
+            case THE_END -> activeWorlds.endName();
+            default -> activeWorlds.overworldName();
+        };
+        World w = Bukkit.getWorld(name);
+        if (w != null) return w;
+        if (isResetting()) return null;
+
+        World overworld = activeWorlds.overworld();
+        long start = System.nanoTime();
+        createWorld(name, env, overworld != null ? overworld.getSeed() : 0L, overworld != null);
+        w = Bukkit.getWorld(name);
+        if (w != null) {
+            if (lifecycleSettings != null) w.setAutoSave(!lifecycleSettings.worldDiscardable);
+            log.info("[Worlds] Loaded " + name + " on demand in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+            try { dimensionLoadedHook.accept(w); } catch (Throwable ignored) {}
+        }
+        return w;
+    }
+
+    /**
+     * 预热：下一 Tick 加载维度，并异步预取 (blockX, blockZ) 附近的 3x3 区块，
+     * 让真正穿过传送门时无需再同步加载世界与目标区块。
+     */
+    public void prewarmDimension(World.Environment env, int blockX, int blockZ) {
+        tasks.run(() -> {
+            World w = loadDimension(env);
+            if (w == null) return;
+            int cx = blockX >> 4;
+            int cz = blockZ >> 4;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    w.getChunkAtAsync(cx + dx, cz + dz);
+                }
+            }
+        });
+    }
+
+    /**
+     * 活动世界组的自动保存：用完即弃模式下关闭。备用世界组仍正常保存，卸载时落盘。
+     */
+    private void applyLiveWorldFlags(Settings s) {
+        for (World w : new World[]{activeWorlds.overworld(), activeWorlds.nether(), activeWorlds.end()}) {
+            if (w != null) w.setAutoSave(!s.worldDiscardable);
+        }
+    }
+
+    private void initIdleUnload(Settings s) {
+        if (idleUnloadTask != null || !s.worldLazyDimensions || s.worldLazyIdleUnloadSec <= 0) return;
+        idleUnloadTask = tasks.repeat(() -> unloadIdleDimensions(s), 200L, 200L);
+    }
+
+    /**
+     * 大厅与赛后：活动世界组中无人的下界/末地空闲超过设定时间后卸载，释放内存。对局进行中不卸载。
+     */
+    private void unloadIdleDimensions(Settings s) {
+        if (roundRunning.getAsBoolean() || isResetting()) {
+            idleSince.clear();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (World w : new World[]{activeWorlds.nether(), activeWorlds.end()}) {
+            if (w == null) continue;
+            if (!w.getPlayers().isEmpty()) {
+                idleSince.remove(w.getName());
+                continue;
+            }
+            long since = idleSince.computeIfAbsent(w.getName(), k -> now);
+            if (now - since < s.worldLazyIdleUnloadSec * 1000L) continue;
+            idleSince.remove(w.getName());
+            String name = w.getName();
+            if (Bukkit.unloadWorld(w, !s.worldDiscardable || archiver != null)) log.info("[Worlds] Unloaded idle dimension " + name);
+        }
+    }
+
+    public List<PregenJobRegistry.JobStatus> getPregenJobs() {
+        return pregenJobs.getJobs();
+    }
+
+    public String getThrottleSummary() {
+        if (governor == null) return "OFF";
+        return String.format("%s %d%% %.1fms", governor.getMode().name(),
+                Math.round(governor.getBudget() * 100.0), governor.getLastMspt());
+    }
+
+    private void initDirs(Settings s) {
+        if (dirs != null) return;
+        Path container = Bukkit.getWorldContainer().toPath();
+        dirs = new WorldDirs(container, s.worldGameContainer, s.lobbyWorld, log);
+        if (!dirs.isSplit()) return;
+        try {
+            dirs.allowSymlinks();
+        } catch (IOException ex) {
+            // 未放行的符号链接世界会被服务端拒绝加载，备用池将永远停在 PREPARING
+            log.severe("[Worlds] world.gameContainer disabled: cannot allow " + dirs.getGameContainer()
+                    + " in allowed_symlinks.txt -> " + ex.getMessage()
+                    + ". Add the line \"[prefix]" + dirs.getGameContainer() + "/\" to that file and restart.");
+            dirs = new WorldDirs(container, "", s.lobbyWorld, log);
+            return;
+        }
+        log.info("[Worlds] Game worlds live in " + dirs.getGameContainer());
+    }
+
+    private void initTrash(Settings s) {
+        if (trash != null) return;
+        Path dir = new File(Bukkit.getWorldContainer(), TRASH_DIR).toPath();
+        trash = new TrashPurger(dir, s.worldTrashWorkers, s.worldTrashMaxFilesPerSecond, log);
+        trash.resumeLeftovers();
+        // 回收站依赖同一文件系统内的原子重命名，独立目录需要自己的回收站
+        if (dirs.isSplit()) {
+            gameTrash = new TrashPurger(dirs.getGameContainer().resolve(TRASH_DIR),
+                    s.worldTrashWorkers, s.worldTrashMaxFilesPerSecond, log);
+            gameTrash.resumeLeftovers();
+        }
+    }
+
+    private void initArchiver(Settings s) {
+        if (archiver != null || !s.worldArchiveEnabled) return;
+        Path out = s.worldArchiveDir.isEmpty()
+                ? tasks.getPlugin().getDataFolder().toPath().resolve("archives")
+                : Paths.get(s.worldArchiveDir).toAbsolutePath().normalize();
+        archiver = new WorldArchiver(out, s.worldArchiveCompressionLevel, s.worldArchiveMaxMbPerSecond * 1048576L,
+                s.worldArchiveMaxQueued, s.worldArchiveKeep, log);
+
+        List<Path> containers = new ArrayList<>();
+        containers.add(Bukkit.getWorldContainer().toPath());
+        if (dirs.isSplit()) containers.add(dirs.getGameContainer());
+        archiver.resumeLeftovers(containers, this::releaseStaged);
+    }
+
+    public void shutdown() {
+        // 记下正在构建的槽位进度，重启后从中断的维度继续
+        for (PoolSlot slot : pool) {
+            if (slot.state != SlotState.PREPARING) continue;
+            WorldPrepJournal.Entry e = journal.get(slot.base);
+            if (e != null && !e.completed()) journal.progress(slot.base, e.dimsDone(), slot.progressSnapshot());
+        }
+        if (governor != null) governor.stop();
+        tasks.cancel(idleUnloadTask);
+        idleUnloadTask = null;
+        pregenJobs.cancelAll();
+        if (trash != null) trash.shutdown();
+        if (gameTrash != null) gameTrash.shutdown();
+        if (archiver != null) archiver.shutdown();
+    }
+
+    private void initPool(Settings s) {
+        lifecycleSettings = s;
+        refreshAdaptiveRadii(s);
+        pool.clear();
+        // 候选名中除活动世界组外的其余名字分配给各槽位
+        int i = 0;
+        boolean resume = false;
+        for (String base : ActiveWorldRegistry.candidateBases(s)) {
+            if (base.equals(activeWorlds.getBase())) continue;
+            PoolSlot slot = new PoolSlot(i++, base);
+            slot.resetProgress(preloadRadii(s));
+            pool.add(slot);
+
+            if (isAdoptable(s, base)) {
+                slot.markComplete();
+                setSlotState(slot, SlotState.READY);
+                log.info("[Worlds] Adopted completed pool slot #" + slot.index + " (" + base + ") from journal");
+            } else if (resumableEntry(s, base) != null) {
+                resume = true;
+            }
+        }
+        if (resume) {
+            log.info("[Worlds] Interrupted preparation found in journal, resuming shortly");
+        }
+    }
+
+    /**
+     * 日志记录为已完成、预加载半径未变，且目录指纹与完成时一致。
+     */
+    private boolean isAdoptable(Settings s, String base) {
+        WorldPrepJournal.Entry e = journal.get(base);
+        if (e == null || !e.completed() || !e.signature().equals(templateSignature(s))) return false;
+        try {
+            List<Long> now = fingerprints(base, e.namesOnly());
+            if (now.equals(e.checksums())) return true;
+            log.warning("[Worlds] Journal checksum mismatch for " + base + ", regenerating");
+        } catch (IOException ex) {
+            log.warning("[Worlds] Cannot fingerprint " + base + " -> " + ex.getMessage());
+        }
+        journal.remove(base);
+        return false;
+    }
+
+    /**
+     * 中断的预生成：预加载半径未变且主世界目录仍在时可续做。
+     */
+    private WorldPrepJournal.Entry resumableEntry(Settings s, String base) {
+        WorldPrepJournal.Entry e = journal.get(base);
+        if (e == null || e.completed() || !e.signature().equals(templateSignature(s))) return null;
+        return Files.isRegularFile(dirs.dir(base).resolve("level.dat")) ? e : null;
+    }
+
+    private List<Long> fingerprints(String base, boolean namesOnly) throws IOException {
+        List<Long> out = new ArrayList<>(DIMENSION_SUFFIXES.length);
+        for (String suffix : DIMENSION_SUFFIXES) {
+            out.add(WorldFiles.fingerprint(dirs.dir(base + suffix), REGION_DIRS, !namesOnly));
+        }
+        return out;
+    }
+
+    /**
+     * 在后台计算目录指纹后把世界组记为已完成。
+     *
+     * @param staysLoaded 世界组完成后保持加载 (flipPromote)：自动保存与关服保存仍会改变区域文件大小，
+     *                    因此只对文件名取指纹
+     */
+    private void journalComplete(Settings s, String base, long delayTicks, boolean staysLoaded) {
+        final String signature = templateSignature(s);
+        tasks.later(() -> tasks.async(() -> {
+            try {
+                List<Long> sums = fingerprints(base, staysLoaded);
+                tasks.run(() -> journal.complete(base, signature, sums, staysLoaded));
+            } catch (IOException ex) {
+                log.warning("[Worlds] Cannot fingerprint " + base + " -> " + ex.getMessage());
+            }
+        }), delayTicks);
+    }
+
+    private void setSlotState(PoolSlot slot, SlotState state) {
+        slot.state = state;
+        if (state == SlotState.READY) prepareFailures = 0;
+        refreshLifecycle();
+    }
+
+    /**
+     * 槽位准备失败：释放槽位。有切换正在等待时按指数退避重新开始准备，否则赛后重置会一直挂起；
+     * 连续失败达到上限后放弃并报错。
+     */
+    private void slotFailed(Settings s, PoolSlot slot) {
+        setSlotState(slot, SlotState.EMPTY);
+        if (promoteWaiters == 0) return;
+        if (prepareFailures >= PREPARE_MAX_RETRIES) {
+            log.severe("[Worlds] Pool slot #" + slot.index + " failed " + (prepareFailures + 1)
+                    + " times in a row while a reset is waiting; giving up");
+            return;
+        }
+        long delay = PREPARE_RETRY_TICKS << prepareFailures;
+        prepareFailures++;
+        log.warning("[Worlds] Pool slot #" + slot.index + " failed while a reset is waiting, retrying in "
+                + (delay / 20L) + " s (" + prepareFailures + "/" + PREPARE_MAX_RETRIES + ")");
+        tasks.later(() -> prepareNextWorlds(s, s.resetRandomSeedEachRound), delay);
+    }
+
+    /**
+     * 根据槽位状态重新推导整体状态，并完成或重置 readyFuture。
+     */
+    private void refreshLifecycle() {
+        Lifecycle cur = lifecycle.get();
+        if (cur == Lifecycle.PROMOTING) return;
+
+        Lifecycle next;
+        if (findSlot(SlotState.READY) != null || (lifecycleSettings != null && canRestoreInPlace(lifecycleSettings))) {
+            next = Lifecycle.READY;
+        } else if (findSlot(SlotState.PREPARING) != null) {
+            next = Lifecycle.PREPARING;
+        } else {
+            next = Lifecycle.IDLE;
+        }
+        if (!lifecycle.compareAndSet(cur, next)) return;
+
+        if (next == Lifecycle.READY) {
+            readyFuture.complete(null);
+        } else if (readyFuture.isDone()) {
+            readyFuture = new CompletableFuture<>();
+        }
+    }
+
+    private boolean beginPromote() {
+        Lifecycle cur;
+        do {
+            cur = lifecycle.get();
+            if (cur == Lifecycle.PROMOTING) return false;
+        } while (!lifecycle.compareAndSet(cur, Lifecycle.PROMOTING));
+        promoteDone = new CompletableFuture<>();
+        return true;
+    }
+
+    private void endPromote() {
+        CompletableFuture<Void> done = promoteDone;
+        lifecycle.set(Lifecycle.IDLE);
+        refreshLifecycle();
+        done.complete(null);
+    }
+
+    /**
+     * 已有切换在进行时，等它结束后再回调：地图已经换过，调用方无需再切换一次。
+     */
+    private void afterCurrentPromote(Runnable onDone) {
+        promoteDone.thenRun(() -> tasks.run(() -> safeRun(onDone)));
+    }
+
+    private PoolSlot findSlot(SlotState state) {
+        for (PoolSlot slot : pool) {
+            if (slot.state == state) return slot;
+        }
+        return null;
     }
 
-    // ========== 后台构建 _next 世界 ==========
+    // ========== 后台构建备用世界 ==========
 
+    /**
+     * 为下一个空槽位启动后台预生成。
+     * 同一时间只构建一个槽位，完成后自动继续填充剩余空槽位。
+     */
     public void prepareNextWorlds(Settings s, boolean randomSeed) {
-        if (!nextPreparing.compareAndSet(false, true)) {
+        if (isResetting() || isNextPreparing()) return;
+        // 局部恢复可用时无需预先填充备用池，仅在回退时才会用到
+        if (canRestoreInPlace(s)) return;
+
+        PoolSlot slot = findSlot(SlotState.EMPTY);
+        if (slot == null) return;
+
+        setSlotState(slot, SlotState.PREPARING);
+        slot.resetProgress(preloadRadii(s));
+        log.info("[Worlds] Preparing pool slot #" + slot.index + " (" + slot.base + ")");
+
+        if (Settings.RESET_MODE_TEMPLATE.equals(s.resetMode)) {
+            prepareSlotFromTemplate(s, slot);
             return;
         }
-        nextReady.set(false);
-        nextProgressPercent = 0;
 
-        tasks.runTasksInSequence(2L,
-                () -> unloadIfLoaded(s.gameWorld + "_next", false),
-                () -> unloadIfLoaded(s.gameWorld + "_next_nether", false),
-                () -> unloadIfLoaded(s.gameWorld + "_next_the_end", false),
+        WorldPrepJournal.Entry partial = resumableEntry(s, slot.base);
+        if (partial != null) {
+            resumeWorldSet(s, partial, slot.dimProgress,
+                    () -> onNextPreloadDone(s, slot, randomSeed),
+                    () -> slotFailed(s, slot));
+            return;
+        }
+
+        if (!s.resetSeedList.isEmpty()) {
+            long curated = s.resetSeedList.get(ThreadLocalRandom.current().nextInt(s.resetSeedList.size()));
+            Runnable generate = () -> regenerateWorldSet(s, slot.base, curated, true, slot.dimProgress,
+                    () -> onNextPreloadDone(s, slot, randomSeed),
+                    () -> slotFailed(s, slot));
+            if (!s.seedCacheEnabled) {
+                generate.run();
+                return;
+            }
+            String key = seedCacheKey(s, curated);
+            tasks.async(() -> {
+                boolean hit = seedCache.contains(key);
+                tasks.run(hit ? () -> cloneCachedIntoSlot(s, slot, curated, key, randomSeed) : generate);
+            });
+            return;
+        }
+
+        long seed = randomSeed ? ThreadLocalRandom.current().nextLong() : 0L;
+        regenerateWorldSet(s, slot.base, seed, randomSeed,
+                slot.dimProgress,
+                () -> onNextPreloadDone(s, slot, randomSeed),
+                () -> slotFailed(s, slot));
+    }
+
+    // ========== 种子缓存 ==========
+
+    /**
+     * 缓存键使用静态配置的半径，与 templateSignature 一致：自适应半径的微调不应让缓存全部失效。
+     */
+    private static String seedCacheKey(Settings s, long seed) {
+        return WorldSetCache.key(seed, WorldType.NORMAL.name(), configuredRadii(s), Bukkit.getMinecraftVersion());
+    }
+
+    private static boolean isCacheable(Settings s, WorldPrepJournal.Entry e) {
+        return s.seedCacheEnabled && e != null && e.useSeed() && s.resetSeedList.contains(e.seed());
+    }
+
+    private Path[] worldSetPaths(String base) {
+        Path[] out = new Path[DIMENSION_SUFFIXES.length];
+        for (int i = 0; i < out.length; i++) out[i] = dirs.dir(base + DIMENSION_SUFFIXES[i]);
+        return out;
+    }
+
+    /**
+     * 缓存命中：在后台把缓存复制进槽位目录，不再创建世界与预生成。
+     * 复制前先写入日志，复制中途重启时按普通的中断续做处理。
+     */
+    private void cloneCachedIntoSlot(Settings s, PoolSlot slot, long seed, String key, boolean randomSeed) {
+        final String base = slot.base;
+        runHeavySteps(2L,
+                () -> {
+                    for (String suffix : DIMENSION_SUFFIXES) cancelPregenJobs(base + suffix);
+                    journal.begin(base, seed, true, templateSignature(s));
+                },
+                () -> unloadIfLoaded(base, false),
+                () -> unloadIfLoaded(base + "_nether", false),
+                () -> unloadIfLoaded(base + "_the_end", false),
+                () -> tasks.async(() -> {
+                    try {
+                        long start = System.nanoTime();
+                        for (String suffix : DIMENSION_SUFFIXES) deleteWorldFolder(base + suffix);
+                        long bytes = seedCache.restore(key, worldSetPaths(base), CLONE_SKIP);
+                        long ms = (System.nanoTime() - start) / 1_000_000L;
+                        log.info("[Seeds] Cache hit for seed " + seed + ": cloned into pool slot #" + slot.index
+                                + " (" + (bytes >> 20) + " MB in " + ms + " ms)");
+
+                        journalComplete(s, base, 0L, false);
+                        tasks.run(() -> {
+                            slot.markComplete();
+                            setSlotState(slot, SlotState.READY);
+                            prepareNextWorlds(s, randomSeed);
+                        });
+                    } catch (Throwable ex) {
+                        log.severe("[Seeds] Cache clone failed for " + base + " -> " + ex.getMessage());
+                        tasks.run(() -> slotFailed(s, slot));
+                    }
+                })
+        );
+    }
+
+    /**
+     * 把刚完成的世界组存入缓存后再执行 then；失败只记日志，不影响槽位就绪。
+     * 复制期间槽位尚未标记为就绪，不会被切换走。
+     */
+    private void storeInCache(Settings s, String base, long seed, Runnable then) {
+        final String key = seedCacheKey(s, seed);
+        final long maxBytes = (long) s.seedCacheMaxSizeMb << 20;
+        tasks.async(() -> {
+            try {
+                seedCache.store(key, seed, worldSetPaths(base), CLONE_SKIP, maxBytes);
+            } catch (Throwable ex) {
+                log.warning("[Seeds] Failed to cache world set " + base + " -> " + ex.getMessage());
+            }
+            tasks.run(then);
+        });
+    }
+
+    /**
+     * 清空并重新生成一整组世界 (主世界/下界/末地)，随后依次预加载各维度。
+     * onGenerated 在预加载完成后于主线程回调，此时世界仍处于加载状态。
+     */
+    private void regenerateWorldSet(Settings s, String base, long seed, boolean useSeed,
+                                    AtomicIntegerArray progress, Runnable onGenerated, Runnable onFailed) {
+        runHeavySteps(2L,
+                () -> {
+                    for (String suffix : DIMENSION_SUFFIXES) cancelPregenJobs(base + suffix);
+                    journal.remove(base);
+                },
+                () -> unloadIfLoaded(base, false),
+                () -> unloadIfLoaded(base + "_nether", false),
+                () -> unloadIfLoaded(base + "_the_end", false),
                 () -> {
                     tasks.async(() -> {
                         try {
-                            String base = s.gameWorld + "_next";
                             deleteWorldFolder(base);
                             deleteWorldFolder(base + "_nether");
                             deleteWorldFolder(base + "_the_end");
 
-                            tasks.run(() -> {
-                                long seed = randomSeed ? ThreadLocalRandom.current().nextLong() : 0L;
-                                createNextWorldStep(s, base, seed, randomSeed);
-                            });
+                            tasks.run(() -> runHeavySteps(0L,
+                                    () -> createNextWorldStep(s, base, seed, useSeed, progress, onGenerated, onFailed)));
 
                         } catch (Throwable ex) {
                             ex.printStackTrace();
-                            nextPreparing.set(false);
+                            tasks.run(onFailed);
                         }
                     });
                 }
         );
     }
 
-    private void createNextWorldStep(Settings s, String base, long seed, boolean randomSeed) {
-        tasks.runTasksInSequence(5L,
-                () -> createWorld(base, World.Environment.NORMAL, seed, randomSeed),
-                () -> createWorld(base + "_nether", World.Environment.NETHER, seed, randomSeed),
-                () -> createWorld(base + "_the_end", World.Environment.THE_END, seed, randomSeed),
+    private void createNextWorldStep(Settings s, String base, long seed, boolean useSeed,
+                                     AtomicIntegerArray progress, Runnable onGenerated, Runnable onFailed) {
+        // 精选列表中的种子不做预筛选
+        if (useSeed && s.seedScreenEnabled && !s.resetSeedList.contains(seed)) {
+            screenSeed(s, new SeedScreener(s), base, seed, 1,
+                    accepted -> {
+                        journal.begin(base, accepted, true, templateSignature(s));
+                        createDimensions(s, base, accepted, true, 0, progress, onGenerated, onFailed);
+                    },
+                    onFailed);
+            return;
+        }
+        journal.begin(base, seed, useSeed, templateSignature(s));
+        createDimensions(s, base, seed, useSeed, 0, progress, onGenerated, onFailed);
+    }
+
+    /**
+     * 按日志续做中断的世界组：以原种子重新加载已有目录，从第一个未完成的维度继续预加载。
+     * 已生成的区块会被预生成后端直接跳过，因此重跑当前维度的代价很小。
+     */
+    private void resumeWorldSet(Settings s, WorldPrepJournal.Entry e, AtomicIntegerArray progress,
+                                Runnable onGenerated, Runnable onFailed) {
+        log.info("[Worlds] Resuming preparation of " + e.base() + " from dimension " + e.dimsDone()
+                + " (seed " + e.seed() + ")");
+        int[] p = e.progress();
+        for (int i = 0; i < p.length; i++) progress.set(i, p[i]);
+        createDimensions(s, e.base(), e.seed(), e.useSeed(), e.dimsDone(), progress, onGenerated, onFailed);
+    }
+
+    /**
+     * 种子预筛选：先只创建主世界并评估，不合格则卸载删除后换种子重试。
+     * Bukkit 只能通过已创建的 World 取得原版生物群系源与结构查找，无法仅凭 WorldCreator 评估种子，
+     * 因此筛选用的世界不保持出生点加载、也不强制加载出生点区块，只承担创建时寻找出生点的开销；
+     * 种子被接受后由 createDimensions 补上强制加载。
+     * 达到最大尝试次数时接受最后一个种子，保证流程总能继续。
+     */
+    private void screenSeed(Settings s, SeedScreener screener, String base, long seed, int attempt,
+                            LongConsumer onAccepted, Runnable onFailed) {
+        createWorld(base, World.Environment.NORMAL, seed, true, true);
+        World w = Bukkit.getWorld(base);
+        if (w == null) {
+            safeRun(onFailed);
+            return;
+        }
+
+        SeedScreener.Verdict v = screener.evaluate(w);
+        String took = String.format("%.1f ms", v.micros() / 1000.0);
+        if (v.accepted()) {
+            log.info("[Seeds] Accepted seed " + seed + " for " + base + " (attempt " + attempt
+                    + ", ocean " + String.format("%.2f", v.oceanRatio())
+                    + ", stronghold " + v.strongholdDistance() + ") in " + took);
+            onAccepted.accept(seed);
+            return;
+        }
+
+        String why = String.join(", ", v.reasons());
+        if (attempt >= s.seedScreenMaxAttempts) {
+            log.warning("[Seeds] Seed " + seed + " rejected (" + why + ") in " + took
+                    + ", but attempts exhausted; using it anyway");
+            onAccepted.accept(seed);
+            return;
+        }
+        log.info("[Seeds] Rejected seed " + seed + " (" + why + ") in " + took + ", retrying");
+
+        unloadIfLoaded(base, false);
+        long nextSeed = ThreadLocalRandom.current().nextLong();
+        tasks.async(() -> {
+            try {
+                deleteWorldFolder(base);
+                tasks.later(() -> runHeavySteps(0L,
+                        () -> screenSeed(s, screener, base, nextSeed, attempt + 1, onAccepted, onFailed)), 5L);
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+                tasks.run(onFailed);
+            }
+        });
+    }
+
+    private void createDimensions(Settings s, String base, long seed, boolean useSeed, int fromDim,
+                                  AtomicIntegerArray progress, Runnable onGenerated, Runnable onFailed) {
+        runHeavySteps(5L,
+                () -> createWorld(base, World.Environment.NORMAL, seed, useSeed),
+                () -> createWorld(base + "_nether", World.Environment.NETHER, seed, useSeed),
+                () -> createWorld(base + "_the_end", World.Environment.THE_END, seed, useSeed),
                 () -> {
-                    World w = Bukkit.getWorld(base);
-                    if (w != null) {
-                        startChunkyJobOrThrow(w, s.worldPreloadRadiusBlocks, () -> onNextPreloadDone(base));
+                    if (Bukkit.getWorld(base) != null) {
+                        preloadDimension(s, base, fromDim, progress, onGenerated, onFailed);
                     } else {
-                        nextPreparing.set(false);
+                        safeRun(onFailed);
                     }
                 }
         );
     }
 
-    // ========== 执行地图切换 (Promote) ==========
+    /**
+     * 依次预加载主世界、下界、末地。半径为 0 的维度直接视为完成。
+     */
+    private void preloadDimension(Settings s, String base, int dim, AtomicIntegerArray progress,
+                                  Runnable onGenerated, Runnable onFailed) {
+        if (dim >= DIMENSION_SUFFIXES.length) {
+            safeRun(onGenerated);
+            return;
+        }
 
-    public void promoteWhenReady(Settings s, Runnable onDone) {
-        if (nextReady.get()) {
-            doPromoteNow(s, onDone);
+        int radius = preloadRadii(s)[dim];
+        World w = Bukkit.getWorld(base + DIMENSION_SUFFIXES[dim]);
+        if (w == null || radius <= 0) {
+            progress.set(dim, 100);
+            preloadDimension(s, base, dim + 1, progress, onGenerated, onFailed);
             return;
         }
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (resetting.get()) {
-                    this.cancel();
-                    return;
-                }
+        int[] center = pregenCenter(base, dim);
+        pregenJobs.start(s, w, radius, center[0], center[1],
+                pct -> progress.accumulateAndGet(dim, pct, Math::max),
+                () -> {
+                    progress.set(dim, 100);
+                    journal.progress(base, dim + 1, new int[]{progress.get(0), progress.get(1), progress.get(2)});
+                    preloadDimension(s, base, dim + 1, progress, onGenerated, onFailed);
+                },
+                () -> {
+                    log.severe("[Worlds] Pregeneration failed for " + w.getName());
+                    safeRun(onFailed);
+                });
+    }
+
+    /**
+     * 预生成中心 (方块坐标)：主世界为出生点，下界为出生点的 1/8 (对应主世界出生点附近建的传送门)，末地为原点。
+     */
+    private static int[] pregenCenter(String base, int dim) {
+        if (dim == 2) return new int[]{0, 0};
+        World overworld = Bukkit.getWorld(base);
+        if (overworld == null) return new int[]{0, 0};
+        Location spawn = overworld.getSpawnLocation();
+        int scale = (dim == 1) ? 8 : 1;
+        return new int[]{spawn.getBlockX() / scale, spawn.getBlockZ() / scale};
+    }
+
+    /**
+     * 各维度预加载半径。启用自适应且历史足够时使用推荐值，否则使用静态配置。
+     */
+    private int[] preloadRadii(Settings s) {
+        int[] adaptive = adaptiveRadii;
+        return adaptive != null ? adaptive.clone() : configuredRadii(s);
+    }
 
-                if (nextReady.get()) {
-                    this.cancel();
-                    doPromoteNow(s, onDone);
+    /**
+     * 静态配置的各维度预加载半径：下界默认取主世界的 1/8，末地覆盖主岛及折跃门环。
+     */
+    private static int[] configuredRadii(Settings s) {
+        int overworld = Math.max(0, s.worldPreloadRadiusBlocks);
+        int nether = s.worldPreloadRadiusNether >= 0 ? s.worldPreloadRadiusNether : overworld / 8;
+        int end = Math.max(0, s.worldPreloadRadiusEnd);
+        return new int[]{overworld, nether, end};
+    }
+
+    // ========== 模板模式：一次生成，之后每轮复制区域文件 ==========
+
+    private String templateBase(Settings s) {
+        return s.gameWorld + TEMPLATE_SUFFIX;
+    }
+
+    /**
+     * 模板模式下填充槽位。
+     * 模板尚未冻结时先完整生成一次；之后每次仅在后台线程复制模板目录，不再调用 createWorld / Chunky。
+     */
+    private void prepareSlotFromTemplate(Settings s, PoolSlot slot) {
+        final String template = templateBase(s);
+
+        if (isTemplateFrozen(s)) {
+            cloneTemplateIntoSlot(s, template, slot);
+            return;
+        }
+
+        Runnable frozen = () -> withSpawnIndex(template, () -> freezeTemplate(s, template,
+                () -> cloneTemplateIntoSlot(s, template, slot),
+                () -> slotFailed(s, slot)));
+        WorldPrepJournal.Entry partial = resumableEntry(s, template);
+        if (partial != null) {
+            resumeWorldSet(s, partial, slot.dimProgress, frozen, () -> slotFailed(s, slot));
+            return;
+        }
+
+        log.info("[Worlds] Building pristine template: " + template);
+        long seed = s.resetRandomSeedEachRound ? ThreadLocalRandom.current().nextLong() : 0L;
+        regenerateWorldSet(s, template, seed, s.resetRandomSeedEachRound,
+                slot.dimProgress,
+                frozen,
+                () -> slotFailed(s, slot));
+    }
+
+    private boolean isTemplateFrozen(Settings s) {
+        Path marker = dirs.dir(templateBase(s)).resolve(TEMPLATE_MARKER);
+        if (!Files.isRegularFile(marker)) return false;
+        try {
+            String content = Files.readString(marker).trim();
+            // 预加载半径变化后模板不再可信，需要重建
+            return content.equals(templateSignature(s));
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * 按静态配置计算：自适应半径每局都可能微调，不应因此作废已生成的备用世界组与模板。
+     */
+    private static String templateSignature(Settings s) {
+        int[] r = configuredRadii(s);
+        return "radius=" + r[0] + "," + r[1] + "," + r[2];
+    }
+
+    private void freezeTemplate(Settings s, String template, Runnable then, Runnable onFailed) {
+        tasks.later(() -> runHeavySteps(0L, () -> {
+            unloadIfLoaded(template, true);
+            unloadIfLoaded(template + "_nether", true);
+            unloadIfLoaded(template + "_the_end", true);
+
+            tasks.async(() -> {
+                try {
+                    Path marker = dirs.dir(template).resolve(TEMPLATE_MARKER);
+                    Files.writeString(marker, templateSignature(s));
+                    log.info("[Worlds] Template frozen: " + template);
+                    tasks.run(() -> {
+                        journal.remove(template);
+                        then.run();
+                    });
+                } catch (Throwable ex) {
+                    log.severe("[Worlds] Failed to freeze template: " + ex.getMessage());
+                    tasks.run(onFailed);
                 }
-            }
-        }.runTaskTimer(tasks.getPlugin(), 40L, 40L);
+            });
+        }), 40L);
+    }
+
+    private void cloneTemplateIntoSlot(Settings s, String template, PoolSlot slot) {
+        runHeavySteps(2L,
+                () -> unloadIfLoaded(slot.base, false),
+                () -> unloadIfLoaded(slot.base + "_nether", false),
+                () -> unloadIfLoaded(slot.base + "_the_end", false),
+                () -> tasks.async(() -> {
+                    try {
+                        long start = System.nanoTime();
+                        long bytes = 0L;
+                        for (int dim = 0; dim < DIMENSION_SUFFIXES.length; dim++) {
+                            String suffix = DIMENSION_SUFFIXES[dim];
+                            deleteWorldFolder(slot.base + suffix);
+                            bytes += cloneWorldFolder(template + suffix, slot.base + suffix);
+                            slot.dimProgress.set(dim, 100);
+                        }
+                        long ms = (System.nanoTime() - start) / 1_000_000L;
+                        log.info("[Worlds] Cloned template into pool slot #" + slot.index
+                                + " (" + (bytes >> 20) + " MB in " + ms + " ms)");
+
+                        journalComplete(s, slot.base, 0L, false);
+                        tasks.run(() -> {
+                            slot.markComplete();
+                            setSlotState(slot, SlotState.READY);
+                            prepareNextWorlds(s, s.resetRandomSeedEachRound);
+                        });
+                    } catch (Throwable ex) {
+                        log.severe("[Worlds] Template clone failed for " + slot.base + " -> " + ex.getMessage());
+                        tasks.run(() -> slotFailed(s, slot));
+                    }
+                })
+        );
+    }
+
+    // ========== 执行地图切换 (Promote) ==========
+
+    /**
+     * 在有可用世界组时切换地图，返回的 Future 在切换完成后于主线程完成。
+     * 尚无可用槽位时挂在 readyFuture 上，槽位就绪后的下一 Tick 立即切换，不再轮询。
+     */
+    public CompletableFuture<Void> promoteWhenReady(Settings s) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        promote(s, () -> done.complete(null));
+        return done;
+    }
+
+    private void promote(Settings s, Runnable onDone) {
+        if (canRestoreInPlace(s)) {
+            restoreInPlace(s, onDone);
+            return;
+        }
+
+        PoolSlot ready = findSlot(SlotState.READY);
+        if (ready != null) {
+            doPromoteNow(s, ready, onDone);
+            return;
+        }
+
         log.info("[Worlds] Waiting for next world generation to finalize...");
+        promoteWaiters++;
+        // 没有槽位在准备 (此前失败或从未开始) 时主动开始，否则 readyFuture 永远不会完成
+        if (findSlot(SlotState.PREPARING) == null) {
+            prepareFailures = 0;
+            prepareNextWorlds(s, s.resetRandomSeedEachRound);
+        }
+        whenReady().thenRun(() -> tasks.run(() -> {
+            promoteWaiters--;
+            if (isResetting()) {
+                afterCurrentPromote(onDone);
+                return;
+            }
+            promote(s, onDone);
+        }));
     }
 
-    private void doPromoteNow(Settings s, Runnable onDone) {
-        if (!resetting.compareAndSet(false, true)) return;
+    private void doPromoteNow(Settings s, PoolSlot slot, Runnable onDone) {
+        if (!beginPromote()) {
+            afterCurrentPromote(onDone);
+            return;
+        }
+
+        if (s.resetFlipPromote) {
+            flipPromote(s, slot, onDone);
+            return;
+        }
+
+        final String nx = slot.base;
+        final String gw = activeWorlds.getBase();
+        log.info("[Worlds] Promoting pool slot #" + slot.index + " (" + nx + ")");
 
         tasks.runTasksInSequence(2L,
-                () -> cancelChunkyJobsForWorld(s.gameWorld + "_next"),
+                () -> unloadIfLoaded(gw, archiver != null),
+                () -> unloadIfLoaded(gw + "_nether", archiver != null),
+                () -> unloadIfLoaded(gw + "_the_end", archiver != null),
+
+                () -> unloadIfLoaded(nx, true),
+                () -> unloadIfLoaded(nx + "_nether", true),
+                () -> unloadIfLoaded(nx + "_the_end", true),
+
+                () -> startAsyncMove(s, slot, onDone)
+        );
+    }
 
-                () -> unloadIfLoaded(s.gameWorld, false),
-                () -> unloadIfLoaded(s.gameWorld + "_nether", false),
-                () -> unloadIfLoaded(s.gameWorld + "_the_end", false),
+    /**
+     * A/B 切换：加载槽位世界组 (通常已处于加载状态) 后直接把活动指针指向它，不移动任何文件夹。
+     * 旧的活动世界组不保存直接卸载，交还给该槽位，随后在后台回收并重新生成。
+     */
+    private void flipPromote(Settings s, PoolSlot slot, Runnable onDone) {
+        final String oldBase = activeWorlds.getBase();
+        final String newBase = slot.base;
+        final boolean pristine = Settings.RESET_MODE_TEMPLATE.equals(s.resetMode);
+        final long oldSince = liveSinceMillis;
+        log.info("[Worlds] Flipping to pool slot #" + slot.index + " (" + newBase + ")");
 
-                () -> unloadIfLoaded(s.gameWorld + "_next", true),
-                () -> unloadIfLoaded(s.gameWorld + "_next_nether", true),
-                () -> unloadIfLoaded(s.gameWorld + "_next_the_end", true),
+        tasks.runTasksInSequence(2L,
+                () -> ensureWorld(newBase, World.Environment.NORMAL),
+                () -> { if (!s.worldLazyDimensions) ensureWorld(newBase + "_nether", World.Environment.NETHER); },
+                () -> { if (!s.worldLazyDimensions) ensureWorld(newBase + "_the_end", World.Environment.THE_END); },
+                () -> {
+                    activeWorlds.setActive(newBase);
+                    applyLiveWorldFlags(s);
+                    journal.remove(newBase);
+                    journal.remove(oldBase);
+                    if (pristine && dirtyChunks != null) dirtyChunks.arm();
+
+                    slot.base = oldBase;
+                    slot.resetProgress(preloadRadii(s));
+                    setSlotState(slot, SlotState.EMPTY);
 
-                () -> startAsyncMove(s, onDone)
+                    liveTracked = pristine && dirtyChunks != null;
+                    markLive();
+                    endPromote();
+                    safeRun(onDone);
+                    log.info("[Worlds] Flip finished: " + oldBase + " -> " + newBase);
+                },
+                () -> unloadIfLoaded(oldBase, archiver != null),
+                () -> unloadIfLoaded(oldBase + "_nether", archiver != null),
+                () -> unloadIfLoaded(oldBase + "_the_end", archiver != null),
+                () -> {
+                    if (archiver == null || !isUnloaded(oldBase)) {
+                        prepareNextWorlds(s, s.resetRandomSeedEachRound);
+                        return;
+                    }
+                    // 先把旧世界组移入归档暂存目录，槽位重新生成时就不会删掉它
+                    tasks.async(() -> {
+                        archiveWorldSet(oldBase, oldSince);
+                        tasks.run(() -> prepareNextWorlds(s, s.resetRandomSeedEachRound));
+                    });
+                }
         );
     }
 
-    private void startAsyncMove(Settings s, Runnable onDone) {
+    private void startAsyncMove(Settings s, PoolSlot slot, Runnable onDone) {
         tasks.async(() -> {
             try {
-                String gw = s.gameWorld;
-                String nx = s.gameWorld + "_next";
+                String gw = activeWorlds.getBase();
+                String nx = slot.base;
 
+                archiveWorldSet(gw, liveSinceMillis);
                 deleteWorldFolder(gw); deleteWorldFolder(gw + "_nether"); deleteWorldFolder(gw + "_the_end");
                 moveWorldFolder(nx, gw); moveWorldFolder(nx + "_nether", gw + "_nether"); moveWorldFolder(nx + "_the_end", gw + "_the_end");
 
-                tasks.run(() -> {
-                    tasks.runTasksInSequence(3L,
-                            () -> ensureWorld(gw, World.Environment.NORMAL),
-                            () -> ensureWorld(gw + "_nether", World.Environment.NETHER),
-                            () -> ensureWorld(gw + "_the_end", World.Environment.THE_END),
-                            () -> {
-                                nextPreparing.set(false);
-                                nextReady.set(false);
-                                nextProgressPercent = 100;
-                                resetting.set(false);
-                                safeRun(onDone);
-                                log.info("[Worlds] Promote finished.");
-                            }
-                    );
-                });
+                // 模板模式下新世界组与模板一致，可从此刻开始追踪脏区块
+                boolean pristine = Settings.RESET_MODE_TEMPLATE.equals(s.resetMode);
+                tasks.run(() -> reloadLiveWorlds(s, slot, pristine, onDone));
             } catch (Throwable ex) {
                 ex.printStackTrace();
-                resetting.set(false);
+                tasks.run(() -> {
+                    endPromote();
+                    safeRun(onDone);
+                });
             }
         });
     }
 
+    private void reloadLiveWorlds(Settings s, PoolSlot slot, boolean pristine, Runnable onDone) {
+        String gw = activeWorlds.getBase();
+        if (pristine && dirtyChunks != null) dirtyChunks.arm();
+
+        tasks.runTasksInSequence(3L,
+                () -> ensureWorld(gw, World.Environment.NORMAL),
+                () -> { if (!s.worldLazyDimensions) ensureWorld(gw + "_nether", World.Environment.NETHER); },
+                () -> { if (!s.worldLazyDimensions) ensureWorld(gw + "_the_end", World.Environment.THE_END); },
+                () -> {
+                    if (slot != null) {
+                        journal.remove(slot.base);
+                        slot.resetProgress(preloadRadii(s));
+                        setSlotState(slot, SlotState.EMPTY);
+                    }
+                    applyLiveWorldFlags(s);
+                    liveTracked = pristine && dirtyChunks != null;
+                    markLive();
+                    endPromote();
+                    safeRun(onDone);
+                    log.info("[Worlds] Promote finished.");
+
+                    // 槽位已被取用，后台继续补满备用池
+                    prepareNextWorlds(s, s.resetRandomSeedEachRound);
+                }
+        );
+    }
+
+    // ========== 局部恢复：仅把脏区块从模板写回 ==========
+
+    private boolean canRestoreInPlace(Settings s) {
+        return s.resetPartialRestore
+                && Settings.RESET_MODE_TEMPLATE.equals(s.resetMode)
+                && dirtyChunks != null
+                && liveTracked
+                && isTemplateFrozen(s);
+    }
+
+    private void restoreInPlace(Settings s, Runnable onDone) {
+        if (!beginPromote()) {
+            afterCurrentPromote(onDone);
+            return;
+        }
+
+        final String gw = activeWorlds.getBase();
+        final String template = templateBase(s);
+        log.info("[Worlds] Restoring dirty chunks in place from " + template);
+
+        tasks.runTasksInSequence(2L,
+                () -> unloadIfLoaded(gw, false),
+                () -> unloadIfLoaded(gw + "_nether", false),
+                () -> unloadIfLoaded(gw + "_the_end", false),
+                () -> {
+                    final Map<String, Set<Long>> dirty = dirtyChunks.drain();
+                    liveTracked = false;
+
+                    tasks.async(() -> {
+                        try {
+                            long start = System.nanoTime();
+                            long bytes = 0L;
+                            int chunks = 0;
+                            long preloaded = 0L;
+                            int[] radii = configuredRadii(s);
+                            for (int dim = 0; dim < DIMENSION_SUFFIXES.length; dim++) {
+                                String suffix = DIMENSION_SUFFIXES[dim];
+                                Set<Long> set = dirty.getOrDefault(gw + suffix, Set.of());
+                                bytes += restoreWorldFolder(template + suffix, gw + suffix, set);
+                                chunks += set.size();
+                                preloaded += preloadedChunks(radii[dim]);
+                            }
+                            long ms = (System.nanoTime() - start) / 1_000_000L;
+                            // 脏区块包含本局加载过的所有区块 (见 DirtyChunkTracker)，占比用于核对局部恢复是否划算
+                            String share = preloaded > 0
+                                    ? String.format(Locale.ROOT, "%.1f%%", chunks * 100.0 / preloaded) : "n/a";
+                            log.info("[Worlds] Restored " + chunks + " chunks (" + share + " of " + preloaded
+                                    + " preloaded, " + (bytes >> 10) + " KB) in " + ms + " ms");
+
+                            tasks.run(() -> reloadLiveWorlds(s, null, true, onDone));
+                        } catch (Throwable ex) {
+                            log.severe("[Worlds] Partial restore failed, falling back to full promote -> " + ex.getMessage());
+                            tasks.run(() -> {
+                                endPromote();
+                                prepareNextWorlds(s, s.resetRandomSeedEachRound);
+                                promote(s, onDone);
+                            });
+                        }
+                    });
+                }
+        );
+    }
+
+    /**
+     * 将单个世界目录恢复为模板状态：非区域文件整体同步，区域类文件只改写脏区块条目。
+     */
+    private long restoreWorldFolder(String templateName, String liveName, Set<Long> chunks) throws IOException {
+        Path src = dirs.dir(templateName);
+        Path dst = dirs.dir(liveName);
+
+        WorldFiles.syncTreeExcept(src, dst, REGION_DIRS, CLONE_SKIP);
+
+        Map<Long, List<Integer>> byRegion = new HashMap<>();
+        for (long key : chunks) {
+            int cx = DirtyChunkTracker.keyX(key);
+            int cz = DirtyChunkTracker.keyZ(key);
+            byRegion.computeIfAbsent(DirtyChunkTracker.key(cx >> 5, cz >> 5), k -> new ArrayList<>())
+                    .add(RegionFileIO.localIndex(cx, cz));
+        }
+
+        // 下界/末地的区域目录位于 DIM-1 / DIM1 子目录中
+        Set<String> regionDirs = WorldFiles.findDirs(src, REGION_DIRS, 2);
+        regionDirs.addAll(WorldFiles.findDirs(dst, REGION_DIRS, 2));
+
+        long bytes = 0L;
+        for (String rel : regionDirs) {
+            for (Map.Entry<Long, List<Integer>> e : byRegion.entrySet()) {
+                int rx = DirtyChunkTracker.keyX(e.getKey());
+                int rz = DirtyChunkTracker.keyZ(e.getKey());
+                String file = RegionFileIO.regionFileName(rx, rz);
+                bytes += RegionFileIO.restoreChunks(src.resolve(rel).resolve(file), dst.resolve(rel).resolve(file), rx, rz, e.getValue());
+            }
+        }
+        return bytes;
+    }
+
     // ---------- 内部工具 ----------
+
+    /** 预加载区域的区块数：与内置预生成器一致，为以中心区块为圆心、半径 r 个区块的圆 */
+    private static long preloadedChunks(int radiusBlocks) {
+        if (radiusBlocks <= 0) return 0L;
+        int r = (radiusBlocks + 15) >> 4;
+        long r2 = (long) r * r;
+        long n = 0L;
+        for (int x = -r; x <= r; x++) {
+            n += 2L * (long) Math.sqrt(r2 - (long) x * x) + 1;
+        }
+        return n;
+    }
+    /**
+     * 复制世界目录。复制而非硬链接：服务端会原地改写 .mca，硬链接会把本轮改动写回模板。
+     * 在支持 reflink 的文件系统 (btrfs/XFS) 上 Files.copy 会走内核的写时复制。
+     */
+    private long cloneWorldFolder(String fromName, String toName) throws IOException {
+        Path src = dirs.dir(fromName);
+        Path dst = dirs.dir(toName);
+        if (!Files.isDirectory(src)) return 0L;
+        return WorldFiles.copyTree(src, dst, CLONE_SKIP);
+    }
+
     private void ensureWorld(String name, World.Environment env) {
         if (Bukkit.getWorld(name) == null) {
             createWorld(name, env, 0L, false);
@@ -190,10 +1358,7 @@ public final class GameWorldManager {
     }
 
     private void moveWorldFolder(String fromName, String toName) throws IOException {
-        File container = Bukkit.getWorldContainer();
-        Path src = new File(container, fromName).toPath();
-        Path dst = new File(container, toName).toPath();
-        Files.move(src, dst, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        dirs.move(fromName, toName);
         log.info("[Worlds] Moved folder: " + fromName + " -> " + toName);
     }
 
@@ -207,105 +1372,240 @@ public final class GameWorldManager {
         }
     }
 
+    /**
+     * 删除世界目录：优先原子重命名进所在文件系统的回收站，由后台清理器慢慢删除；重命名失败时才同步递归删除。
+     * 世界容器中的符号链接一并删除。
+     */
     private void deleteWorldFolder(String worldName) throws IOException {
-        File container = Bukkit.getWorldContainer();
-        File dir = new File(container, worldName);
-        if (!dir.exists()) return;
-        Path root = dir.toPath();
-        Files.walkFileTree(root, new SimpleFileVisitor<>() {
-            @Override public @NonNull FileVisitResult visitFile(@NotNull Path file, @NotNull BasicFileAttributes attrs) {
-                try { Files.deleteIfExists(file); } catch (IOException ignored) {}
-                return FileVisitResult.CONTINUE;
-            }
-            @Override public @NonNull FileVisitResult postVisitDirectory(@NotNull Path d, IOException exc) {
-                try { Files.deleteIfExists(d); } catch (IOException ignored) {}
-                return FileVisitResult.CONTINUE;
-            }
-        });
-        log.info("[Worlds] Deleted folder: " + worldName);
+        Path dir = dirs.dir(worldName);
+        if (!Files.exists(dir)) {
+            dirs.unlink(worldName);
+            return;
+        }
+        if (discardDir(dir)) {
+            log.info("[Worlds] Trashed folder: " + worldName);
+        } else {
+            log.info("[Worlds] Deleted folder: " + worldName);
+        }
+        dirs.unlink(worldName);
+    }
+
+    /**
+     * @return true 表示已移入回收站，false 表示已同步删除
+     */
+    private boolean discardDir(Path dir) throws IOException {
+        TrashPurger bin = dirs.isInGameContainer(dir) ? gameTrash : trash;
+        if (bin != null && bin.trash(dir)) return true;
+        WorldFiles.deleteTree(dir);
+        return false;
+    }
+
+    private boolean isUnloaded(String base) {
+        for (String suffix : DIMENSION_SUFFIXES) {
+            if (Bukkit.getWorld(base + suffix) != null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 归档即将被丢弃的世界组：各维度目录原子移入所在文件系统的暂存目录后排队压缩，
+     * 随后的 deleteWorldFolder 发现目录已不存在，只清理符号链接。
+     * 未启用、排队已满或重命名失败时什么也不做，由原流程直接删除。只应在后台线程调用。
+     */
+    private void archiveWorldSet(String base, long sinceMillis) {
+        if (archiver == null) return;
+        if (archiver.isBusy()) {
+            log.warning("[Archive] " + archiver.getPending() + " archives still queued, not archiving " + base);
+            return;
+        }
+        String name = base + "-" + LocalDateTime.now().format(ARCHIVE_STAMP);
+        Set<Path> roots = new LinkedHashSet<>();
+        for (String suffix : DIMENSION_SUFFIXES) {
+            Path root = archiver.stage(name, base + suffix, dirs.dir(base + suffix), sinceMillis);
+            if (root != null) roots.add(root);
+        }
+        if (roots.isEmpty()) return;
+        archiver.submit(name, new ArrayList<>(roots), this::releaseStaged);
+        log.info("[Archive] Queued " + name);
+    }
+
+    /** 归档写完后删除暂存目录 */
+    private void releaseStaged(Path root) {
+        try {
+            discardDir(root);
+        } catch (IOException ex) {
+            log.warning("[Archive] Failed to delete staged " + root + " -> " + ex.getMessage());
+        }
     }
 
     private void createWorld(String name, World.Environment env, long seed, boolean useSeed) {
+        createWorld(name, env, seed, useSeed, false);
+    }
+
+    /**
+     * @param screening 仅用于种子预筛选：不保持出生点加载，不强制加载出生点区块
+     */
+    private void createWorld(String name, World.Environment env, long seed, boolean useSeed, boolean screening) {
         try {
+            // 已加载 (例如刚通过预筛选) 时 createWorld 直接返回该世界，只需补上强制加载
+            boolean existed = Bukkit.getWorld(name) != null;
             WorldCreator wc = new WorldCreator(name).environment(env);
             wc.type(WorldType.NORMAL);
             if (useSeed) wc.seed(seed);
+            if (screening) wc.keepSpawnLoaded(TriState.FALSE);
+            dirs.prepare(name);
             World w = Bukkit.createWorld(wc);
             if (w != null) {
                 try {
                     w.setAutoSave(true);
-                    int cx = w.getSpawnLocation().getBlockX() >> 4;
-                    int cz = w.getSpawnLocation().getBlockZ() >> 4;
-                    w.setChunkForceLoaded(cx, cz, true);
+                    // 按需加载模式下下界/末地要能空闲卸载，不强制加载出生点区块
+                    boolean lazy = lifecycleSettings != null && lifecycleSettings.worldLazyDimensions;
+                    if (!screening && (env == World.Environment.NORMAL || !lazy)) {
+                        int cx = w.getSpawnLocation().getBlockX() >> 4;
+                        int cz = w.getSpawnLocation().getBlockZ() >> 4;
+                        w.setChunkForceLoaded(cx, cz, true);
+                    }
                 } catch (Throwable ignored) {}
-                log.info("[Worlds] Created: " + name + " (" + env.name() + ")");
+                if (!existed) {
+                    log.info("[Worlds] Created: " + name + " (" + env.name() + (screening ? ", screening" : "") + ")");
+                }
             }
         } catch (Throwable ex) {
             log.severe("[Worlds] Create world failed: " + name + " -> " + ex.getMessage());
         }
     }
 
-    private void onNextPreloadDone(String baseName) {
-        World w = Bukkit.getWorld(baseName);
-        World wn = Bukkit.getWorld(baseName + "_nether");
-        World we = Bukkit.getWorld(baseName + "_the_end");
+    private void onNextPreloadDone(Settings s, PoolSlot slot, boolean randomSeed) {
+        // 续做的槽位与旧版本生成的世界组可能没有索引，此时一并补建
+        withSpawnIndex(slot.base, () -> runHeavySteps(0L, () -> finishPreparedSet(s, slot, randomSeed)));
+    }
+
+    /**
+     * 世界组预生成完成、卸载之前，确保主世界带有出生点索引后再执行 next。
+     * 索引构建受调速器预算限制，对局中也可进行。
+     */
+    private void withSpawnIndex(String base, Runnable next) {
+        World overworld = Bukkit.getWorld(base);
+        if (overworld == null) {
+            next.run();
+            return;
+        }
+        overworldPreloadedHook.accept(overworld, next);
+    }
+
+    private void finishPreparedSet(Settings s, PoolSlot slot, boolean randomSeed) {
+        final String baseName = slot.base;
+        WorldPrepJournal.Entry entry = journal.get(baseName);
+        boolean cache = isCacheable(s, entry);
 
-        if (w != null) w.save();
-        if (wn != null) wn.save();
-        if (we != null) we.save();
+        if (s.resetFlipPromote) {
+            Runnable ready = () -> {
+                slot.markComplete();
+                setSlotState(slot, SlotState.READY);
+                prepareNextWorlds(s, randomSeed);
+            };
+            if (cache) {
+                cacheThenReload(s, slot, entry.seed(), ready);
+                return;
+            }
+
+            // A/B 切换模式下保持加载，切换时无需再次读盘；按需加载模式下只保留主世界
+            log.info("[Worlds] Pool slot #" + slot.index + " generation done. Kept loaded for flip promote.");
+            if (s.worldLazyDimensions) {
+                unloadIfLoaded(baseName + "_nether", true);
+                unloadIfLoaded(baseName + "_the_end", true);
+            }
+            // 保持加载的维度需显式保存一次，供指纹读取
+            for (String suffix : DIMENSION_SUFFIXES) {
+                World dw = Bukkit.getWorld(baseName + suffix);
+                if (dw != null) dw.save();
+            }
+            // 保存是异步落盘的，稍后再取指纹
+            journalComplete(s, baseName, 100L, true);
+            ready.run();
+            return;
+        }
 
-        log.info("[Worlds] NEXT generation done. Unloading immediately to free RAM...");
+        log.info("[Worlds] Pool slot #" + slot.index + " generation done. Unloading immediately to free RAM...");
 
-        tasks.later(() -> {
+        tasks.later(() -> runHeavySteps(0L, () -> {
             unloadIfLoaded(baseName, true);
             unloadIfLoaded(baseName + "_nether", true);
             unloadIfLoaded(baseName + "_the_end", true);
 
-            nextProgressPercent = 100;
-            nextReady.set(true);
-            nextPreparing.set(false);
-        }, 40L);
-    }
+            Runnable ready = () -> {
+                slot.markComplete();
+                setSlotState(slot, SlotState.READY);
+                journalComplete(s, baseName, 0L, false);
 
-    private void safeRun(Runnable r) { if (r != null) try { r.run(); } catch (Throwable ignored) {} }
+                prepareNextWorlds(s, randomSeed);
+            };
+            if (cache) {
+                storeInCache(s, baseName, entry.seed(), ready);
+            } else {
+                ready.run();
+            }
+        }), 40L);
+    }
 
-    // ---------- Chunky API 封装 ----------
+    /**
+     * A/B 切换模式下写入缓存：保持加载的世界仍会自动保存、改写区域文件，不能边用边复制。
+     * 先保存并卸载整组，落盘后从已卸载的目录写入缓存，再重新加载供切换使用。
+     */
+    private void cacheThenReload(Settings s, PoolSlot slot, long seed, Runnable ready) {
+        final String baseName = slot.base;
+        log.info("[Worlds] Pool slot #" + slot.index + " generation done. Caching before keeping it loaded for flip promote.");
+        unloadIfLoaded(baseName, true);
+        unloadIfLoaded(baseName + "_nether", true);
+        unloadIfLoaded(baseName + "_the_end", true);
 
-    private ChunkyAPI loadChunkyAPIOrThrow() {
-        ChunkyAPI api = Bukkit.getServer().getServicesManager().load(ChunkyAPI.class);
-        if (api == null) throw new IllegalStateException("ChunkyAPI service not found or not enabled.");
-        return api;
+        tasks.later(() -> storeInCache(s, baseName, seed, () -> runHeavySteps(2L,
+                () -> ensureWorld(baseName, World.Environment.NORMAL),
+                () -> { if (!s.worldLazyDimensions) ensureWorld(baseName + "_nether", World.Environment.NETHER); },
+                () -> { if (!s.worldLazyDimensions) ensureWorld(baseName + "_the_end", World.Environment.THE_END); },
+                () -> {
+                    journalComplete(s, baseName, 0L, true);
+                    ready.run();
+                }
+        )), 40L);
     }
 
-    private void startChunkyJobOrThrow(World world, int radiusBlocks, Runnable onComplete) {
-        ChunkyAPI chunky = loadChunkyAPIOrThrow();
-        final String worldName = world.getName();
-        final int r = Math.max(0, radiusBlocks);
-
-        boolean started = chunky.startTask(worldName, "circle", 0.0, 0.0, r, r, "concentric");
-        if (!started) throw new IllegalStateException("Chunky startTask returned false for world " + worldName);
+    /**
+     * 与 Tasks.runTasksInSequence 相同，但对局进行中每一步都要等调速器报告 MSPT 余量才执行，或对局结束后继续。
+     * 调速器只能按比例限制预生成的区块数；创建、卸载、保存世界与种子筛选都是一次性的主线程重活，
+     * 备用世界流水线中的这类步骤一律经由此方法执行，对局中每次采样至多放行一步。
+     */
+    private void runHeavySteps(long delay, Runnable... steps) {
+        runHeavySteps(delay, steps, 0);
+    }
 
-        chunky.onGenerationProgress((GenerationProgressEvent ev) -> {
-            if (!worldName.equalsIgnoreCase(ev.world())) return;
-            int pct = Math.clamp(Math.round(ev.progress()), 0, 100);
-            if (pct > nextProgressPercent) nextProgressPercent = pct;
-        });
+    private void runHeavySteps(long delay, Runnable[] steps, int index) {
+        if (index >= steps.length) return;
+        Runnable step = () -> {
+            try {
+                steps[index].run();
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+            }
+            if (index + 1 < steps.length) tasks.later(() -> runHeavySteps(delay, steps, index + 1), delay);
+        };
+        if (!roundRunning.getAsBoolean() || governor == null) {
+            step.run();
+            return;
+        }
 
-        chunky.onGenerationComplete((GenerationCompleteEvent ev) -> {
-            if (!worldName.equalsIgnoreCase(ev.world())) return;
-            tasks.run(() -> {
-                try { world.save(); } catch (Throwable ignored) {}
-                safeRun(onComplete);
-            });
-        });
+        // 余量与对局结束以先到者为准，只执行一次
+        AtomicBoolean started = new AtomicBoolean();
+        Runnable once = () -> {
+            if (started.compareAndSet(false, true)) step.run();
+        };
+        governor.whenHeadroom(once);
+        if (!started.get()) roundEnded.thenRun(() -> tasks.run(once));
     }
 
-    private void cancelChunkyJobsForWorld(String worldName) {
-        try {
-            ChunkyAPI chunky = loadChunkyAPIOrThrow();
-            if (chunky.isRunning(worldName)) {
-                chunky.cancelTask(worldName);
-            }
-        } catch (Throwable ignored) {}
+    private void safeRun(Runnable r) { if (r != null) try { r.run(); } catch (Throwable ignored) {} }
+
+    private void cancelPregenJobs(String worldName) {
+        pregenJobs.cancel(worldName);
     }
-}
\ No newline at end of file
+}
@@ -32,15 +32,11 @@ public final class PlayerRoleManager {
     private final Settings settings;
     private final MessageService msg;
     private final Tasks tasks;
+    private final TeleportPlanner teleports;
 
-    private final String gameWorldName;
+    private final ActiveWorldRegistry activeWorlds;
     private final String lobbyWorldName;
 
-    // 世界对象引用缓存
-    private World cachedGameWorld;
-    private World cachedNetherWorld;
-    private World cachedEndWorld;
-
     // 玩家角色映射表
     public final Map<UUID, PlayerRole> roleOf = new ConcurrentHashMap<>();
 
@@ -64,7 +60,9 @@ public final class PlayerRoleManager {
             TrackingListener trackingListener,
             Settings settings,
             MessageService msg,
-            Tasks tasks
+            Tasks tasks,
+            ActiveWorldRegistry activeWorlds,
+            TeleportPlanner teleports
     ) {
         this.gameManager = gameManager;
         this.boardListener = boardListener;
@@ -72,7 +70,8 @@ public final class PlayerRoleManager {
         this.settings = settings;
         this.msg = msg;
         this.tasks = tasks;
-        this.gameWorldName = settings.gameWorld;
+        this.activeWorlds = activeWorlds;
+        this.teleports = teleports;
         this.lobbyWorldName = settings.lobbyWorld;
     }
 
@@ -86,27 +85,7 @@ public final class PlayerRoleManager {
      * 判断指定世界是否属于当前游戏的活动地图组。
      */
     private boolean isGameWorld(World w) {
-        if (w == null) return false;
-
-        // 优先检查缓存引用
-        if (w == cachedGameWorld || w == cachedNetherWorld || w == cachedEndWorld) return true;
-
-        // 缓存未命中时通过名称检查并更新缓存
-        String name = w.getName();
-        if (name.equals(gameWorldName)) {
-            cachedGameWorld = w;
-            return true;
-        }
-        if (name.equals(gameWorldName + "_nether")) {
-            cachedNetherWorld = w;
-            return true;
-        }
-        if (name.equals(gameWorldName + "_the_end")) {
-            cachedEndWorld = w;
-            return true;
-        }
-
-        return false;
+        return activeWorlds.isGameWorld(w);
     }
 
     // ---------- 掉线保护与超时管理 ----------
@@ -311,8 +290,11 @@ public final class PlayerRoleManager {
                         msg.broadcast("game.broadcast.late_join_hunter", p.getName());
                     }
 
-                    Location target = isIngameRespawn ? calcRespawnLocation(p) : calcResumeLocation(p);
-                    safeTeleport(p, target);
+                    if (isIngameRespawn) {
+                        teleportToRespawn(p);
+                    } else {
+                        safeTeleport(p, calcResumeLocation(p));
+                    }
 
                     safeSetGameMode(p, GameMode.SURVIVAL);
 
@@ -335,8 +317,7 @@ public final class PlayerRoleManager {
                             && currentRole != PlayerRole.RUNNER;
                     if (isFreshJoin) {
                         msg.broadcast("game.broadcast.late_join_runner", p.getName());
-                        Location dropLoc = calcLateJoinRunnerLocation(p);
-                        safeTeleport(p, dropLoc);
+                        dropLateJoinRunner(p);
 
                         msg.send(p, "&a你已中途加入游戏！正在空投至队友附近...");
 
@@ -351,7 +332,6 @@ public final class PlayerRoleManager {
                         safeTeleport(p, calcResumeLocation(p));
                     }
 
-                    safeTeleport(p, calcResumeLocation(p));
                     safeSetGameMode(p, GameMode.SURVIVAL);
 
                     if (!isRejoining) {
@@ -458,28 +438,66 @@ public final class PlayerRoleManager {
 
     // ---------- 坐标计算与传送辅助方法 ----------
 
+    /**
+     * 交给传送计划器：同一玩家尚未执行的传送会被新的目标取代。
+     */
     private void safeTeleport(Player p, Location loc) {
         if (p == null || loc == null) return;
-        try {
-            p.teleport(loc);
-            p.setFallDistance(0f);
-        } catch (Throwable ignored) {}
+        teleports.submit(p, loc, landed -> landed.setFallDistance(0f));
     }
 
-    private Location calcLateJoinRunnerLocation(Player me) {
+    /**
+     * 中途加入的逃亡者空投至随机队友附近；落点异步检测，就绪时玩家仍为本局逃亡者才传送。
+     */
+    private void dropLateJoinRunner(Player me) {
         List<Player> mates = getOnlineRunners();
         mates.remove(me);
 
         if (mates.isEmpty()) {
-            return calcGameSpawn();
+            safeTeleport(me, calcGameSpawn());
+            return;
         }
 
         Player target = mates.get(ThreadLocalRandom.current().nextInt(mates.size()));
-        if (spawnScatterManager != null) {
-            return spawnScatterManager.findSafeSpotNearSync(target.getLocation(), 10);
+        if (spawnScatterManager == null) {
+            safeTeleport(me, target.getLocation());
+            return;
+        }
+
+        spawnScatterManager.findSafeSpotNear(target.getLocation(), 10, loc -> {
+            if (stillPlaying(me, PlayerRole.RUNNER)) safeTeleport(me, loc);
+        });
+    }
+
+    /**
+     * 猎人复活：有效的床位直接传送，否则异步寻找出生点附近的安全落点。
+     */
+    private void teleportToRespawn(Player p) {
+        try {
+            Location bed = p.getRespawnLocation();
+            if (bed != null && isGameWorld(bed.getWorld())) {
+                safeTeleport(p, bed.clone());
+                return;
+            }
+        } catch (Throwable ignored) {}
+
+        World gw = activeWorlds.overworld();
+        if (gw == null) {
+            safeTeleport(p, p.getLocation().clone());
+            return;
+        }
+        if (spawnScatterManager == null) {
+            safeTeleport(p, gw.getSpawnLocation().clone());
+            return;
         }
 
-        return target.getLocation();
+        spawnScatterManager.findRespawnFallback(gw, loc -> {
+            if (stillPlaying(p, PlayerRole.HUNTER)) safeTeleport(p, loc);
+        });
+    }
+
+    private boolean stillPlaying(Player p, PlayerRole role) {
+        return p.isOnline() && gameManager.getState() == GameState.RUNNING && getRole(p.getUniqueId()) == role;
     }
 
     private Location calcLobbySpawn() {
@@ -488,7 +506,7 @@ public final class PlayerRoleManager {
     }
 
     private Location calcGameSpawn() {
-        World w = Bukkit.getWorld(gameWorldName);
+        World w = activeWorlds.overworld();
         return (w != null) ? w.getSpawnLocation().clone() : null;
     }
 
@@ -496,20 +514,7 @@ public final class PlayerRoleManager {
         Location last = lastGameLocation.get(p.getUniqueId());
         if (last != null && last.getWorld() != null) return last.clone();
 
-        World gw = Bukkit.getWorld(gameWorldName);
-        if (gw != null) return gw.getSpawnLocation().clone();
-        return p.getLocation().clone();
-    }
-
-    private Location calcRespawnLocation(Player p) {
-        try {
-            Location bed = p.getRespawnLocation();
-            if (bed != null && isGameWorld(bed.getWorld())) {
-                return bed.clone();
-            }
-        } catch (Throwable ignored) {}
-
-        World gw = Bukkit.getWorld(gameWorldName);
+        World gw = activeWorlds.overworld();
         if (gw != null) return gw.getSpawnLocation().clone();
         return p.getLocation().clone();
     }
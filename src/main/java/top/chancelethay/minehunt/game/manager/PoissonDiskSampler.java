@@ -0,0 +1,168 @@
+package top.chancelethay.minehunt.game.manager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 环带内的 Poisson-disk (蓝噪声) 采样
+ *
+ * 以 minDist / √2 为边长的网格做空间哈希，每格至多一个点，冲突检测只查周围 5×5 格，与已有点数无关。
+ * 采样采用 Bridson 算法：从活动点周围 [minDist, 2·minDist] 的环上取候选，一轮即可铺满环带，
+ * 代价与生成的点数成线性。环带容量不足以容纳所需点数时，按 minDist 逐步向外加宽环带后继续采样
+ * (只向外加宽，避免侵入环内的猎人区域)；加宽次数可由调用方限制，为 0 时严格限定在给定环带内。
+ * 非线程安全。
+ */
+public final class PoissonDiskSampler {
+
+    // 每个活动点的候选次数 (Bridson 建议值)
+    private static final int CANDIDATES_PER_POINT = 30;
+    // 容量不足时默认最多加宽的次数
+    private static final int MAX_WIDEN_STEPS = 8;
+
+    private final double cx;
+    private final double cz;
+    private final double minDist;
+    private final double minDistSq;
+    private final double cell;
+    private final int maxWidenSteps;
+    private double rMin;
+    private double rMax;
+
+    private final Map<Long, double[]> grid = new HashMap<>();
+    private final List<double[]> points = new ArrayList<>();
+
+    public PoissonDiskSampler(double cx, double cz, double rMin, double rMax, double minDist) {
+        this(cx, cz, rMin, rMax, minDist, MAX_WIDEN_STEPS);
+    }
+
+    /**
+     * @param maxWidenSteps 容量不足时最多加宽环带的次数，0 = 不加宽
+     */
+    public PoissonDiskSampler(double cx, double cz, double rMin, double rMax, double minDist, int maxWidenSteps) {
+        this.cx = cx;
+        this.cz = cz;
+        this.rMin = Math.max(0, rMin);
+        this.rMax = Math.max(this.rMin, rMax);
+        this.minDist = Math.max(1e-3, minDist);
+        this.minDistSq = this.minDist * this.minDist;
+        this.cell = this.minDist / Math.sqrt(2);
+        this.maxWidenSteps = Math.max(0, maxWidenSteps);
+    }
+
+    public double getInnerRadius() { return rMin; }
+    public double getOuterRadius() { return rMax; }
+    public int size() { return points.size(); }
+
+    /**
+     * 当前环带按六边形最密堆积的理论点数上限；随机采样通常只能达到其一半到七成。
+     */
+    public int capacity() {
+        double area = Math.PI * (rMax * rMax - rMin * rMin);
+        return (int) (area / (Math.sqrt(3) / 2 * minDistSq));
+    }
+
+    /**
+     * 与所有已有点的距离均不小于 minDist 时加入该点 (不要求位于环带内，用于登记已占用的位置)。
+     */
+    public boolean tryAdd(double x, double z) {
+        if (!isFree(x, z)) return false;
+        put(x, z);
+        return true;
+    }
+
+    public boolean isFree(double x, double z) {
+        long gx = cellOf(x - cx);
+        long gz = cellOf(z - cz);
+        for (long ix = gx - 2; ix <= gx + 2; ix++) {
+            for (long iz = gz - 2; iz <= gz + 2; iz++) {
+                double[] p = grid.get(key(ix, iz));
+                if (p == null) continue;
+                double dx = p[0] - x, dz = p[1] - z;
+                if (dx * dx + dz * dz < minDistSq) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在环带内追加采样，直到新增 want 个点或环带饱和；饱和且仍不足时加宽环带再继续。
+     *
+     * @return 新增的点 (x, z)，按生成顺序排列
+     */
+    public List<double[]> sample(int want, Random rnd) {
+        List<double[]> out = new ArrayList<>(Math.max(0, want));
+        if (want <= 0) return out;
+
+        for (int step = 0; ; step++) {
+            fill(want, rnd, out);
+            if (out.size() >= want || step >= maxWidenSteps) break;
+            rMax += minDist;
+        }
+        return out;
+    }
+
+    private void fill(int want, Random rnd, List<double[]> out) {
+        // 已有点全部重新作为活动点：环带加宽后它们的外侧出现了新空间
+        List<double[]> active = new ArrayList<>(points);
+        for (int seeds = 0; seeds < CANDIDATES_PER_POINT && out.size() < want; seeds++) {
+            double[] seed = randomInAnnulus(rnd);
+            if (!tryAdd(seed[0], seed[1])) continue;
+            double[] q = points.get(points.size() - 1);
+            out.add(q);
+            active.add(q);
+            break;
+        }
+
+        while (!active.isEmpty() && out.size() < want) {
+            int i = rnd.nextInt(active.size());
+            double[] p = active.get(i);
+            boolean placed = false;
+            for (int k = 0; k < CANDIDATES_PER_POINT; k++) {
+                double ang = rnd.nextDouble() * Math.PI * 2.0;
+                double r = minDist * (1.0 + rnd.nextDouble());
+                double x = p[0] + Math.cos(ang) * r;
+                double z = p[1] + Math.sin(ang) * r;
+                if (!inAnnulus(x, z) || !tryAdd(x, z)) continue;
+                double[] q = points.get(points.size() - 1);
+                out.add(q);
+                active.add(q);
+                placed = true;
+                break;
+            }
+            if (!placed) {
+                active.set(i, active.get(active.size() - 1));
+                active.remove(active.size() - 1);
+            }
+        }
+    }
+
+    private boolean inAnnulus(double x, double z) {
+        double dx = x - cx, dz = z - cz;
+        double d2 = dx * dx + dz * dz;
+        return d2 >= rMin * rMin && d2 <= rMax * rMax;
+    }
+
+    // 按面积均匀分布
+    private double[] randomInAnnulus(Random rnd) {
+        double ang = rnd.nextDouble() * Math.PI * 2.0;
+        double r = Math.sqrt(rMin * rMin + rnd.nextDouble() * (rMax * rMax - rMin * rMin));
+        return new double[]{cx + Math.cos(ang) * r, cz + Math.sin(ang) * r};
+    }
+
+    private void put(double x, double z) {
+        double[] p = {x, z};
+        grid.put(key(cellOf(x - cx), cellOf(z - cz)), p);
+        points.add(p);
+    }
+
+    private long cellOf(double v) {
+        return (long) Math.floor(v / cell);
+    }
+
+    private static long key(long gx, long gz) {
+        return (gx << 32) ^ (gz & 0xFFFFFFFFL);
+    }
+}
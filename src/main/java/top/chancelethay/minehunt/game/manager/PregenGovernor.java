@@ -0,0 +1,116 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import top.chancelethay.minehunt.utils.Settings;
+import top.chancelethay.minehunt.utils.Tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * 预生成调速器
+ * 每秒采样一次服务器 MSPT 与 TPS，根据当前阶段 (对局进行中 / 大厅与赛后) 的阈值计算预生成预算 (0..1)：
+ * MSPT 低于 slowMspt 时满预算，在 slowMspt 与 pauseMspt 之间按剩余余量线性递减，超过 pauseMspt 或 TPS 过低时暂停。
+ * 对局进行中使用更严格的阈值，并且预算不超过 running.maxBudget，以低优先级在后台准备下一组世界。
+ * 创建、卸载世界等无法按比例缩减的一次性操作通过 {@link #whenHeadroom(Runnable)} 排队，有余量时逐个放行。
+ */
+public final class PregenGovernor {
+
+    public enum Mode { FULL, SLOW, PAUSED }
+
+    private final Tasks tasks;
+    private final Settings settings;
+    private final BooleanSupplier roundRunning;
+    private final ObjDoubleConsumer<Mode> onSample;
+
+    private BukkitTask task;
+    private volatile Mode mode = Mode.FULL;
+    private volatile double lastMspt = 0.0;
+    private volatile double budget = 1.0;
+    // 等待 MSPT 余量的一次性操作；只在主线程访问
+    private final List<Runnable> headroomWaiters = new ArrayList<>();
+
+    public PregenGovernor(Tasks tasks, Settings settings, BooleanSupplier roundRunning, ObjDoubleConsumer<Mode> onSample) {
+        this.tasks = tasks;
+        this.settings = settings;
+        this.roundRunning = roundRunning;
+        this.onSample = onSample;
+    }
+
+    public Mode getMode() { return mode; }
+    public double getLastMspt() { return lastMspt; }
+    public double getBudget() { return budget; }
+
+    public void start() {
+        if (task != null || !settings.throttleEnabled) return;
+        task = tasks.repeat(this::sample, 20L, 20L);
+    }
+
+    public void stop() {
+        tasks.cancel(task);
+        task = null;
+        mode = Mode.FULL;
+        budget = 1.0;
+        releaseHeadroomWaiters(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 在之后某次采样显示当前阶段仍有 MSPT 余量 (不高于 slowMspt 且 TPS 正常) 时于主线程执行 r。
+     * 每次采样只放行一个，且总要等下一次采样，上一个操作造成的卡顿会先反映在 MSPT 中。
+     * 调速器未启动时立即执行。
+     */
+    public void whenHeadroom(Runnable r) {
+        if (task == null) {
+            r.run();
+            return;
+        }
+        headroomWaiters.add(r);
+    }
+
+    private void sample() {
+        double mspt = Bukkit.getAverageTickTime();
+        double tps = Bukkit.getTPS()[0];
+        lastMspt = mspt;
+
+        boolean running = roundRunning != null && roundRunning.getAsBoolean();
+        double slowMspt = running ? settings.throttleRunningSlowMspt : settings.throttleIdleSlowMspt;
+        double pauseMspt = running ? settings.throttleRunningPauseMspt : settings.throttleIdlePauseMspt;
+        double minTps = running ? settings.throttleRunningMinTps : settings.throttleIdleMinTps;
+
+        double cap = running ? settings.throttleRunningMaxBudget : 1.0;
+
+        double b;
+        if (mspt >= pauseMspt || tps < minTps) {
+            b = 0.0;
+        } else if (mspt <= slowMspt) {
+            b = 1.0;
+        } else {
+            b = (pauseMspt - mspt) / Math.max(0.001, pauseMspt - slowMspt);
+        }
+        if (mode == Mode.PAUSED && b > 0.0 && mspt >= slowMspt * 0.9) {
+            // 回差：从暂停恢复时预算先减半，避免在阈值附近来回抖动
+            b *= 0.5;
+        }
+        b = Math.clamp(Math.min(b, cap), 0.0, 1.0);
+
+        Mode next = (b <= 0.0) ? Mode.PAUSED : (b >= 1.0 ? Mode.FULL : Mode.SLOW);
+        mode = next;
+        budget = b;
+        onSample.accept(next, b);
+
+        if (mspt <= slowMspt && tps >= minTps) releaseHeadroomWaiters(1);
+    }
+
+    private void releaseHeadroomWaiters(int max) {
+        for (int i = 0; i < max && !headroomWaiters.isEmpty(); i++) {
+            try {
+                headroomWaiters.remove(0).run();
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+import top.chancelethay.minehunt.utils.Settings;
+import top.chancelethay.minehunt.utils.Tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.logging.Logger;
+
+/**
+ * 预生成任务登记处
+ *
+ * 统一管理 Chunky 与内置预生成器上的任务：按世界名登记，负责取消、卡死超时与重试，
+ * 并统计每个任务的已生成区块数、区块/秒与耗时。Chunky 的事件监听只在 {@link ChunkyBridge} 中注册一次，
+ * 由此处按世界名分发给当前任务。
+ */
+public final class PregenJobRegistry implements ChunkyBridge.Sink {
+
+    /** 任务状态快照，供 /mh status 展示 */
+    public record JobStatus(String worldName, String backend, int percent, long chunks,
+                            double chunksPerSecond, long elapsedMillis, int attempt) {}
+
+    private final Tasks tasks;
+    private final Logger log;
+    private final ChunkPregenerator pregenerator;
+    private ChunkyBridge chunky;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private BukkitTask watchdog;
+    private volatile boolean paused = false;
+    private int throttleTicks = 0;
+
+    public PregenJobRegistry(Tasks tasks) {
+        this.tasks = tasks;
+        this.log = tasks.getPlugin().getLogger();
+        this.pregenerator = new ChunkPregenerator(tasks);
+    }
+
+    private final class Job {
+        final Settings settings;
+        final World world;
+        final int radius;
+        final int centerX;
+        final int centerZ;
+        final IntConsumer onProgress;
+        final Runnable onComplete;
+        final Runnable onFailed;
+
+        volatile boolean useChunky;
+        volatile int attempt = 0;
+        volatile int percent = 0;
+        volatile long chunks = 0L;
+        volatile long startNanos;
+
+        // 卡死检测
+        long lastChunks = -1L;
+        int stalledSeconds = 0;
+        // 区块/秒：按最近一次采样窗口计算
+        long rateChunks = 0L;
+        long rateNanos;
+        volatile double rate = 0.0;
+
+        Job(Settings settings, World world, int radius, int centerX, int centerZ,
+            IntConsumer onProgress, Runnable onComplete, Runnable onFailed) {
+            this.settings = settings;
+            this.world = world;
+            this.radius = radius;
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.onProgress = onProgress;
+            this.onComplete = onComplete;
+            this.onFailed = onFailed;
+        }
+
+        String name() { return world.getName(); }
+    }
+
+    // ---------- 对外接口 ----------
+
+    /**
+     * 启动以 (centerX, centerZ) 为中心的圆形预生成任务。安装了 Chunky 时交给 Chunky，否则 (或配置为 builtin 时) 使用内置预生成器。
+     * 完成与失败回调均在主线程执行；失败指重试次数用尽。
+     */
+    public void start(Settings s, World world, int radiusBlocks, int centerX, int centerZ,
+                      IntConsumer onProgress, Runnable onComplete, Runnable onFailed) {
+        cancel(world.getName());
+        Job job = new Job(s, world, radiusBlocks, centerX, centerZ, onProgress, onComplete, onFailed);
+        jobs.put(key(world.getName()), job);
+        ensureWatchdog();
+        launch(job);
+    }
+
+    public void cancel(String worldName) {
+        Job job = jobs.remove(key(worldName));
+        stopBackends(worldName);
+        if (job != null) log.info("[Pregen] Cancelled job: " + worldName);
+    }
+
+    public void cancelAll() {
+        for (Job job : new ArrayList<>(jobs.values())) cancel(job.name());
+        tasks.cancel(watchdog);
+        watchdog = null;
+    }
+
+    public List<JobStatus> getJobs() {
+        List<JobStatus> out = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Job job : jobs.values()) {
+            out.add(new JobStatus(job.name(), job.useChunky ? "chunky" : "builtin", job.percent, job.chunks,
+                    job.rate, (now - job.startNanos) / 1_000_000L, job.attempt));
+        }
+        return out;
+    }
+
+    /**
+     * 应用调速结果。内置预生成器按预算缩放并发；Chunky 只支持暂停/继续，
+     * 降速时在每 4 秒的窗口内按预算比例决定运行的秒数。完全暂停期间不计入卡死超时。
+     */
+    public void applyThrottle(PregenGovernor.Mode mode, double budget) {
+        throttleTicks++;
+        pregenerator.setBudget(budget);
+        paused = mode == PregenGovernor.Mode.PAUSED;
+
+        if (chunky != null) {
+            int onSeconds = (int) Math.ceil(budget * 4.0);
+            boolean pause = paused || (throttleTicks & 3) >= onSeconds;
+            chunky.setPaused(pause);
+        }
+    }
+
+    // ---------- Chunky 事件 (生成线程) ----------
+
+    @Override
+    public void onProgress(String worldName, float percent, long chunks) {
+        Job job = jobs.get(key(worldName));
+        if (job == null || !job.useChunky) return;
+        job.chunks = chunks;
+        report(job, Math.clamp(Math.round(percent), 0, 100));
+    }
+
+    @Override
+    public void onComplete(String worldName) {
+        tasks.run(() -> {
+            Job job = jobs.get(key(worldName));
+            if (job != null && job.useChunky) finish(job);
+        });
+    }
+
+    // ---------- 内部逻辑 ----------
+
+    private void launch(Job job) {
+        job.attempt++;
+        job.percent = 0;
+        job.chunks = 0L;
+        job.lastChunks = -1L;
+        job.stalledSeconds = 0;
+        job.rate = 0.0;
+        job.rateChunks = 0L;
+        job.startNanos = System.nanoTime();
+        job.rateNanos = job.startNanos;
+
+        ChunkyBridge bridge = Settings.PREGEN_BACKEND_BUILTIN.equals(job.settings.worldPregenBackend) ? null : chunky();
+        job.useChunky = bridge != null;
+        try {
+            if (bridge != null) {
+                bridge.startJobOrThrow(job.name(), job.centerX, job.centerZ, job.radius);
+            } else {
+                pregenerator.start(job.world, job.centerX, job.centerZ, job.radius, job.settings.worldPregenMaxInFlight,
+                        pct -> {
+                            job.chunks = pregenerator.chunksDone(job.name());
+                            report(job, pct);
+                        },
+                        () -> finish(job));
+            }
+        } catch (Throwable ex) {
+            log.warning("[Pregen] Failed to start job for " + job.name() + " -> " + ex.getMessage());
+            retryOrFail(job, "start failed");
+        }
+    }
+
+    private void report(Job job, int pct) {
+        if (pct <= job.percent) return;
+        job.percent = pct;
+        if (job.onProgress != null) job.onProgress.accept(pct);
+    }
+
+    private void finish(Job job) {
+        if (!jobs.remove(key(job.name()), job)) return;
+        long ms = (System.nanoTime() - job.startNanos) / 1_000_000L;
+        double avg = ms <= 0 ? 0.0 : job.chunks * 1000.0 / ms;
+        log.info(String.format(Locale.ROOT, "[Pregen] Finished %s: %d chunks in %d s (%.1f chunks/s, attempt %d)",
+                job.name(), job.chunks, ms / 1000L, avg, job.attempt));
+        if (job.onComplete != null) job.onComplete.run();
+    }
+
+    private void retryOrFail(Job job, String reason) {
+        stopBackends(job.name());
+        if (jobs.get(key(job.name())) != job) return;
+
+        if (job.attempt <= job.settings.worldPregenRetries) {
+            log.warning("[Pregen] Retrying " + job.name() + " (" + reason + "), attempt "
+                    + (job.attempt + 1) + "/" + (job.settings.worldPregenRetries + 1));
+            tasks.later(() -> {
+                if (jobs.get(key(job.name())) == job) launch(job);
+            }, 40L);
+            return;
+        }
+
+        jobs.remove(key(job.name()), job);
+        log.severe("[Pregen] Giving up on " + job.name() + " (" + reason + ") after " + job.attempt + " attempts");
+        if (job.onFailed != null) job.onFailed.run();
+    }
+
+    private void ensureWatchdog() {
+        if (watchdog != null) return;
+        watchdog = tasks.repeat(this::checkJobs, 20L, 20L);
+    }
+
+    /**
+     * 每秒执行：更新区块/秒，并检查长时间没有新区块的任务。
+     */
+    private void checkJobs() {
+        long now = System.nanoTime();
+        for (Job job : new ArrayList<>(jobs.values())) {
+            if (!job.useChunky) job.chunks = pregenerator.chunksDone(job.name());
+            long chunks = job.chunks;
+            long dt = now - job.rateNanos;
+            if (dt >= 5_000_000_000L) {
+                job.rate = (chunks - job.rateChunks) * 1_000_000_000.0 / dt;
+                job.rateChunks = chunks;
+                job.rateNanos = now;
+            }
+
+            int timeout = job.settings.worldPregenStallTimeoutSec;
+            if (timeout <= 0 || paused) continue;
+            if (chunks != job.lastChunks) {
+                job.lastChunks = chunks;
+                job.stalledSeconds = 0;
+            } else if (++job.stalledSeconds >= timeout) {
+                retryOrFail(job, "no progress for " + timeout + " s");
+            }
+        }
+        if (jobs.isEmpty()) {
+            tasks.cancel(watchdog);
+            watchdog = null;
+        }
+    }
+
+    private void stopBackends(String worldName) {
+        pregenerator.cancel(worldName);
+        if (chunky != null) chunky.cancelJob(worldName);
+    }
+
+    /** Chunky 未启用时返回 null */
+    private ChunkyBridge chunky() {
+        if (!Bukkit.getPluginManager().isPluginEnabled("Chunky")) return null;
+        if (chunky == null) chunky = new ChunkyBridge(this);
+        return chunky;
+    }
+
+    private static String key(String worldName) {
+        return worldName.toLowerCase(Locale.ROOT);
+    }
+}
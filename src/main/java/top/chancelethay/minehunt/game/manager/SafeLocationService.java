@@ -0,0 +1,244 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 安全落点服务
+ *
+ * 主线程只负责异步加载区块并拍摄 ChunkSnapshot，落点检测在后台线程上对快照进行，不读取活动世界的方块。
+ * 快照按区块短时缓存 (SNAPSHOT_TTL_MILLIS 内有效，超出上限时淘汰最久未用的)：开局散点的各候选点集中在
+ * 出生点附近，会在同一阶段内反复命中同一批区块。过期后重新拍摄，中途加入的空投与猎人复活回退看到的是
+ * 接近当前的地形，而不是开局时的地形；每个快照含完整方块与生物群系数据，缓存规模因此保持在较小范围。
+ * 检测规则：非水域群系、Y 在安全范围内、脚下为非危险的实心方块、头顶两格可站立。
+ * 除特别说明外，所有方法只应在主线程调用；返回的 Future 在后台线程完成。
+ */
+public final class SafeLocationService {
+
+    public static final int NO_SAFE_Y = Integer.MIN_VALUE;
+
+    private static final int SNAPSHOT_CACHE_MAX = 256;
+    // 覆盖一次开局散点与随后的分批传送
+    private static final long SNAPSHOT_TTL_MILLIS = 15_000L;
+
+    private static final Set<Biome> WATER_BIOMES = Set.of(
+            Biome.OCEAN, Biome.DEEP_OCEAN, Biome.WARM_OCEAN, Biome.LUKEWARM_OCEAN,
+            Biome.DEEP_LUKEWARM_OCEAN, Biome.COLD_OCEAN, Biome.DEEP_COLD_OCEAN,
+            Biome.FROZEN_OCEAN, Biome.DEEP_FROZEN_OCEAN,
+            Biome.RIVER, Biome.FROZEN_RIVER
+    );
+
+    private record ChunkKey(UUID world, int x, int z) {}
+
+    private record CachedSnapshot(CompletableFuture<ChunkSnapshot> future, long takenMillis) {}
+
+    /** 检测所需的世界属性，在主线程读取后带到后台线程 */
+    private record Bounds(World.Environment env, int minY, int maxY) {
+        static Bounds of(World w) {
+            return new Bounds(w.getEnvironment(), w.getMinHeight(), w.getMaxHeight());
+        }
+    }
+
+    private final ExecutorService workers;
+
+    // 短时快照缓存，按访问顺序淘汰；只在主线程访问
+    private final Map<ChunkKey, CachedSnapshot> snapshots = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ChunkKey, CachedSnapshot> eldest) {
+            return size() > SNAPSHOT_CACHE_MAX;
+        }
+    };
+
+    public SafeLocationService() {
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "MineHunt-SafeSpot-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** 开局与结束时调用，丢弃上一局的快照 */
+    public void clearRoundCache() {
+        snapshots.clear();
+    }
+
+    public void shutdown() {
+        snapshots.clear();
+        workers.shutdownNow();
+        try { workers.awaitTermination(2, TimeUnit.SECONDS); } catch (InterruptedException ignored) {}
+    }
+
+    /**
+     * 检测单个方块列 (使用短时快照缓存)。
+     *
+     * @return 站立位置；不安全或区块加载失败时为 null
+     */
+    public CompletableFuture<Location> evaluate(World world, int x, int z) {
+        Bounds b = Bounds.of(world);
+        return snapshot(world, x >> 4, z >> 4, true).handleAsync((snap, ex) -> {
+            if (ex != null || snap == null) return null;
+            int y = safeTopY(snap, b, x & 15, z & 15);
+            return (y == NO_SAFE_Y) ? null : new Location(world, x + 0.5, y + 1.01, z + 0.5);
+        }, workers);
+    }
+
+    /**
+     * 以中心列为首、再在 radius 范围内随机取点，共 tries 个候选并行检测，返回最先得到的安全点。
+     *
+     * @return 全部不安全时为 null
+     */
+    public CompletableFuture<Location> findNear(Location center, int radius, int tries) {
+        World w = center.getWorld();
+        CompletableFuture<Location> result = new CompletableFuture<>();
+        if (w == null) {
+            result.complete(null);
+            return result;
+        }
+
+        int n = Math.max(1, tries);
+        AtomicInteger left = new AtomicInteger(n);
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int i = 0; i < n; i++) {
+            int dx = (i == 0 || radius <= 0) ? 0 : rnd.nextInt(-radius, radius + 1);
+            int dz = (i == 0 || radius <= 0) ? 0 : rnd.nextInt(-radius, radius + 1);
+            evaluate(w, center.getBlockX() + dx, center.getBlockZ() + dz).whenComplete((loc, ex) -> {
+                if (loc != null) result.complete(loc);
+                if (left.decrementAndGet() == 0) result.complete(null);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 检测一个区块中的若干列，不经过本局缓存 (用于构建备用世界的出生点索引)。
+     *
+     * @param columns 依次为各列的方块坐标 x, z，须位于该区块内
+     * @return 安全列依次为 x, y, z；区块加载失败时为空数组
+     */
+    public CompletableFuture<int[]> scanColumns(World world, int chunkX, int chunkZ, int[] columns) {
+        Bounds b = Bounds.of(world);
+        return snapshot(world, chunkX, chunkZ, false).handleAsync((snap, ex) -> {
+            if (ex != null || snap == null) return new int[0];
+            int[] out = new int[columns.length / 2 * 3];
+            int n = 0;
+            for (int i = 0; i + 1 < columns.length; i += 2) {
+                int y = safeTopY(snap, b, columns[i] & 15, columns[i + 1] & 15);
+                if (y == NO_SAFE_Y) continue;
+                out[n++] = columns[i];
+                out[n++] = y;
+                out[n++] = columns[i + 1];
+            }
+            return Arrays.copyOf(out, n);
+        }, workers);
+    }
+
+    private CompletableFuture<ChunkSnapshot> snapshot(World world, int chunkX, int chunkZ, boolean cached) {
+        ChunkKey key = new ChunkKey(world.getUID(), chunkX, chunkZ);
+        long now = System.currentTimeMillis();
+        if (cached) {
+            CachedSnapshot hit = snapshots.get(key);
+            if (hit != null && !hit.future().isCompletedExceptionally()
+                    && now - hit.takenMillis() <= SNAPSHOT_TTL_MILLIS) {
+                return hit.future();
+            }
+        }
+        // Paper 在主线程完成区块 Future，快照随之在主线程拍摄
+        CompletableFuture<ChunkSnapshot> f = world.getChunkAtAsync(chunkX, chunkZ)
+                .thenApply(chunk -> chunk.getChunkSnapshot(true, true, false));
+        if (cached) {
+            evictExpired(now);
+            snapshots.put(key, new CachedSnapshot(f, now));
+        }
+        return f;
+    }
+
+    /** 从最久未用的一端丢弃过期快照，及早释放内存 */
+    private void evictExpired(long now) {
+        Iterator<CachedSnapshot> it = snapshots.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().takenMillis() <= SNAPSHOT_TTL_MILLIS) break;
+            it.remove();
+        }
+    }
+
+    // ---------- 检测规则 (可在任意线程调用) ----------
+
+    private static int safeTopY(ChunkSnapshot snap, Bounds b, int lx, int lz) {
+        int surfaceY = Math.min(snap.getHighestBlockYAt(lx, lz), b.maxY() - 1);
+        if (surfaceY <= b.minY()) return NO_SAFE_Y;
+        if (isWaterBiome(snap.getBiome(lx, surfaceY, lz))) return NO_SAFE_Y;
+
+        int y = surfaceY;
+        Material top = snap.getBlockType(lx, y, lz);
+        if (top.isAir()) {
+            y = surfaceY - 1;
+            top = snap.getBlockType(lx, y, lz);
+        }
+
+        if (!withinSafeY(b, y)) return NO_SAFE_Y;
+        if (y + 2 >= b.maxY()) return NO_SAFE_Y;
+
+        if (!isSolidGround(top)) return NO_SAFE_Y;
+        if (isHazardGround(top)) return NO_SAFE_Y;
+
+        if (!isClearSpace(snap.getBlockType(lx, y + 1, lz))) return NO_SAFE_Y;
+        if (!isClearSpace(snap.getBlockType(lx, y + 2, lz))) return NO_SAFE_Y;
+
+        return y;
+    }
+
+    private static boolean withinSafeY(Bounds b, int y) {
+        return switch (b.env()) {
+            case NORMAL -> y >= 54 && y <= 300;
+            case NETHER -> y >= b.minY() + 6 && y <= b.maxY() - 6;
+            case THE_END -> y >= 40 && y <= 300;
+            default -> true;
+        };
+    }
+
+    private static boolean isWaterBiome(Biome b) {
+        return b != null && WATER_BIOMES.contains(b);
+    }
+
+    private static boolean isLiquid(Material m) {
+        return m == Material.WATER || m == Material.LAVA;
+    }
+
+    private static boolean isClearSpace(Material m) {
+        if (m.isAir()) return true;
+        if (isLiquid(m)) return false;
+        return !m.isOccluding();
+    }
+
+    private static boolean isSolidGround(Material m) {
+        return m != null && !m.isAir() && m.isSolid() && !isLiquid(m);
+    }
+
+    private static boolean isHazardGround(Material m) {
+        return switch (m) {
+            case SAND, RED_SAND, GRAVEL,
+                 CACTUS, CAMPFIRE, SOUL_CAMPFIRE,
+                 MAGMA_BLOCK,
+                 SWEET_BERRY_BUSH,
+                 POWDER_SNOW -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.BiomeProvider;
+import org.bukkit.generator.structure.StructureType;
+import org.bukkit.util.StructureSearchResult;
+import top.chancelethay.minehunt.utils.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 种子预筛选
+ * 在开始预生成之前，用原版生物群系噪声直接采样出生点与跑者环上的生物群系，
+ * 并查找最近要塞的距离，淘汰出生在海洋、跑者环大面积落水或要塞过远的种子。
+ * 生物群系采样不会生成区块；要塞查找只推进到结构起点阶段。
+ * Bukkit 无法脱离 World 取得生物群系源，因此仍需先创建 (不保持出生点加载的) 主世界，
+ * 创建时服务端寻找出生点会生成少量区块。
+ */
+public final class SeedScreener {
+
+    private static final int RING_SAMPLES = 32;
+    private static final int SPAWN_GRID = 5;
+    private static final int SPAWN_STEP = 16;
+    private static final int SAMPLE_Y = 64;
+
+    public record Verdict(boolean accepted, List<String> reasons, double oceanRatio,
+                          int strongholdDistance, long micros) {}
+
+    private final Settings settings;
+
+    public SeedScreener(Settings settings) {
+        this.settings = settings;
+    }
+
+    public Verdict evaluate(World world) {
+        long start = System.nanoTime();
+        List<String> reasons = new ArrayList<>();
+
+        BiomeProvider biomes = world.vanillaBiomeProvider();
+        Location spawn = world.getSpawnLocation();
+        int sx = spawn.getBlockX();
+        int sz = spawn.getBlockZ();
+
+        // 出生点附近网格
+        int spawnWater = 0;
+        int spawnTotal = 0;
+        int half = SPAWN_GRID / 2;
+        for (int i = -half; i <= half; i++) {
+            for (int j = -half; j <= half; j++) {
+                spawnTotal++;
+                if (isWater(biomes.getBiome(world, sx + i * SPAWN_STEP, SAMPLE_Y, sz + j * SPAWN_STEP))) spawnWater++;
+            }
+        }
+        if (settings.seedScreenRejectOceanSpawn && spawnWater * 2 > spawnTotal) {
+            reasons.add("spawn in water (" + spawnWater + "/" + spawnTotal + ")");
+        }
+
+        // 跑者环
+        int ringR = Math.max(16, settings.runnerRingRadius);
+        int ringWater = 0;
+        for (int k = 0; k < RING_SAMPLES; k++) {
+            double a = (Math.PI * 2.0 * k) / RING_SAMPLES;
+            int x = sx + (int) Math.round(Math.cos(a) * ringR);
+            int z = sz + (int) Math.round(Math.sin(a) * ringR);
+            if (isWater(biomes.getBiome(world, x, SAMPLE_Y, z))) ringWater++;
+        }
+        double oceanRatio = ringWater / (double) RING_SAMPLES;
+        if (oceanRatio > settings.seedScreenMaxOceanRatio) {
+            reasons.add(String.format(Locale.ROOT, "runner ring ocean ratio %.2f", oceanRatio));
+        }
+
+        // 要塞距离：前面已淘汰时不再查找
+        int strongholdDistance = -1;
+        int maxDist = settings.seedScreenMaxStrongholdDistance;
+        if (reasons.isEmpty() && maxDist > 0) {
+            StructureSearchResult found = null;
+            try {
+                found = world.locateNearestStructure(spawn, StructureType.STRONGHOLD, (maxDist >> 4) + 1, false);
+            } catch (Throwable ignored) {}
+            if (found == null) {
+                reasons.add("no stronghold within " + maxDist);
+            } else {
+                Location l = found.getLocation();
+                strongholdDistance = (int) Math.hypot(l.getX() - sx, l.getZ() - sz);
+                if (strongholdDistance > maxDist) {
+                    reasons.add("stronghold at " + strongholdDistance);
+                }
+            }
+        }
+
+        long micros = (System.nanoTime() - start) / 1_000L;
+        return new Verdict(reasons.isEmpty(), reasons, oceanRatio, strongholdDistance, micros);
+    }
+
+    private static boolean isWater(Biome biome) {
+        String key = biome.getKey().getKey();
+        return key.contains("ocean") || key.equals("river") || key.equals("frozen_river");
+    }
+}
@@ -0,0 +1,115 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 预计算的安全出生点索引
+ *
+ * 主世界预生成完成后，在逃亡者环带与猎人中心区域内按网格检测地表安全位置，结果以紧凑的二进制格式
+ * 写入世界目录 (随世界一起被移动、克隆和缓存)。开局时直接从索引中取点，不再加载区块或读取方块。
+ * 索引记录构建时的出生点与环带参数，任一不符 (例如修改了 scatter 配置) 即视为失效。
+ */
+public final class SpawnIndex {
+
+    public static final String FILE = "minehunt-spawns.dat";
+
+    private static final int MAGIC = 0x4D485349;
+    private static final int VERSION = 1;
+
+    /** 构建参数：出生点 (方块坐标)、逃亡者环半径与抖动、猎人中心的内外半径 */
+    public record Params(int spawnX, int spawnZ, int ringRadius, int ringJitter, int hunterMin, int hunterMax) {}
+
+    private final Params params;
+    // 依次存放 x, y, z
+    private final int[] ring;
+    private final int[] hunter;
+
+    public SpawnIndex(Params params, int[] ring, int[] hunter) {
+        this.params = params;
+        this.ring = ring;
+        this.hunter = hunter;
+    }
+
+    public Params getParams() { return params; }
+    public int ringSize() { return ring.length / 3; }
+    public int hunterSize() { return hunter.length / 3; }
+
+    public Location ringAt(World w, int i) { return at(w, ring, i); }
+    public Location hunterAt(World w, int i) { return at(w, hunter, i); }
+
+    private static Location at(World w, int[] xyz, int i) {
+        return new Location(w, xyz[i * 3] + 0.5, xyz[i * 3 + 1] + 1.01, xyz[i * 3 + 2] + 0.5);
+    }
+
+    public static Path path(World w) {
+        return w.getWorldFolder().toPath().resolve(FILE);
+    }
+
+    /**
+     * 先写临时文件再原子替换，避免被同时进行的复制读到半个文件。
+     */
+    public void save(Path file) throws IOException {
+        Path tmp = file.resolveSibling(FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(params.spawnX());
+            out.writeInt(params.spawnZ());
+            out.writeInt(params.ringRadius());
+            out.writeInt(params.ringJitter());
+            out.writeInt(params.hunterMin());
+            out.writeInt(params.hunterMax());
+            writePoints(out, ring);
+            writePoints(out, hunter);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return 文件缺失、损坏或版本不符时返回 null
+     */
+    public static SpawnIndex load(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            Params p = new Params(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            int[] ring = readPoints(in, p);
+            int[] hunter = readPoints(in, p);
+            return new SpawnIndex(p, ring, hunter);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    // 坐标以相对出生点的 short 存储：环带半径远小于 32767
+    private void writePoints(DataOutputStream out, int[] xyz) throws IOException {
+        out.writeInt(xyz.length / 3);
+        for (int i = 0; i < xyz.length; i += 3) {
+            out.writeShort(xyz[i] - params.spawnX());
+            out.writeShort(xyz[i + 1]);
+            out.writeShort(xyz[i + 2] - params.spawnZ());
+        }
+    }
+
+    private static int[] readPoints(DataInputStream in, Params p) throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n > 1 << 20) throw new IOException("bad point count " + n);
+        int[] xyz = new int[n * 3];
+        for (int i = 0; i < xyz.length; i += 3) {
+            xyz[i] = p.spawnX() + in.readShort();
+            xyz[i + 1] = in.readShort();
+            xyz[i + 2] = p.spawnZ() + in.readShort();
+        }
+        return xyz;
+    }
+}
@@ -2,50 +2,74 @@ package top.chancelethay.minehunt.game.manager;
 
 import org.bukkit.*;
 
-import org.bukkit.block.Biome;
-import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import top.chancelethay.minehunt.utils.Settings;
 import top.chancelethay.minehunt.utils.Tasks;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Logger;
 
 /**
  * 散点服务
  * 负责游戏开始时为玩家计算和分配随机出生点。
- * 采用异步区块加载策略，防止大量坐标搜索导致主线程卡顿。
+ * 采用异步区块加载策略，落点检测交给 SafeLocationService 在后台线程完成，防止大量坐标搜索导致主线程卡顿。
  */
 public final class SpawnScatterManager {
 
     private final Settings settings;
     private final Tasks tasks;
+    private final ActiveWorldRegistry activeWorlds;
+    private final SafeLocationService safeLocations;
+    private final TeleportPlanner teleports;
     private PlayerRoleManager playerRoleManager;
+    // 预生成调速器给出的主线程预算 (0..1)，出生点索引的构建与预生成同受限制
+    private DoubleSupplier pregenBudget = () -> 1.0;
 
     private static final int MIN_RING_RADIUS = 8;
-
-    private static final Set<Biome> WATER_BIOMES = Set.of(
-            Biome.OCEAN, Biome.DEEP_OCEAN, Biome.WARM_OCEAN, Biome.LUKEWARM_OCEAN,
-            Biome.DEEP_LUKEWARM_OCEAN, Biome.COLD_OCEAN, Biome.DEEP_COLD_OCEAN,
-            Biome.FROZEN_OCEAN, Biome.DEEP_FROZEN_OCEAN,
-            Biome.RIVER, Biome.FROZEN_RIVER
-    );
-
-    public SpawnScatterManager(Settings settings, Tasks tasks) {
+    // 每个空缺的逃亡者出生点一次补充的候选数，容忍水域等不安全地形
+    private static final int CANDIDATES_PER_RUNNER = 4;
+    // 猎人之间的最小间距
+    private static final int HUNTER_SPACING = 3;
+
+    // 出生点索引的规模上限
+    private static final int INDEX_MAX_RING = 4096;
+    private static final int INDEX_MAX_HUNTER = 512;
+    // 预算为 0 时暂停构建，每隔多少 Tick 重新检查
+    private static final long INDEX_PAUSE_TICKS = 20L;
+
+    // 猎人复活回退时在出生点附近的搜索半径与候选数
+    private static final int RESPAWN_SEARCH_RADIUS = 8;
+    private static final int NEAR_SEARCH_TRIES = 10;
+
+    public SpawnScatterManager(Settings settings, Tasks tasks, ActiveWorldRegistry activeWorlds,
+                               SafeLocationService safeLocations, TeleportPlanner teleports) {
         this.settings = settings;
         this.tasks = tasks;
+        this.activeWorlds = activeWorlds;
+        this.safeLocations = safeLocations;
+        this.teleports = teleports;
     }
 
     public void setPlayerRoleManager(PlayerRoleManager svc) {
         this.playerRoleManager = svc;
     }
 
+    public void setPregenBudget(DoubleSupplier budget) {
+        this.pregenBudget = (budget != null) ? budget : () -> 1.0;
+    }
+
     /**
      * 执行异步散点传送。
      */
     public void performSpawnsAsync(World world, Runnable onComplete) {
-        final World w = (world == null) ? Bukkit.getWorld(settings.gameWorld) : world;
+        final World w = (world == null) ? activeWorlds.overworld() : world;
         if (w == null) {
             if (onComplete != null) onComplete.run();
             return;
@@ -54,220 +78,469 @@ public final class SpawnScatterManager {
         List<Player> runners = playerRoleManager.getOnlineRunners();
         List<Player> hunters = playerRoleManager.getOnlineHunters();
 
-        processRunnersAsync(w, runners, new ArrayList<>(), (runnerLocs) -> {
-            findHunterCenterAsync(w, (hunterCenter) -> {
-                tasks.run(() -> {
-                    for (int i = 0; i < runners.size(); i++) {
-                        if (i < runnerLocs.size()) {
-                            tpReset(runners.get(i), runnerLocs.get(i));
-                        } else {
-                            tpReset(runners.get(i), w.getSpawnLocation());
-                        }
-                    }
-
-                    scatterHuntersAround(w, hunters, hunterCenter);
-                    trySetWorldSpawn(w, hunterCenter);
-
-                    if (onComplete != null) onComplete.run();
-                });
+        safeLocations.clearRoundCache();
+        SpotSearch search = new SpotSearch(w, runners.size());
+        Path indexFile = SpawnIndex.path(w);
+        tasks.async(() -> {
+            SpawnIndex index = SpawnIndex.load(indexFile);
+            tasks.run(() -> {
+                if (index != null && index.getParams().equals(paramsFor(w))) pickFromIndex(w, index, search);
+                startSearch(w, search, runners, hunters, onComplete);
             });
         });
     }
 
-    // =================================================================================
-    //  Runner 异步处理链
-    // =================================================================================
+    /**
+     * 出生点全部确定后交给传送计划器分批传送，所有玩家落地后在主线程回调 onComplete。
+     */
+    private void startSearch(World w, SpotSearch search, List<Player> runners, List<Player> hunters, Runnable onComplete) {
+        search.start((runnerLocs, hunterCenter) -> {
+            List<CompletableFuture<?>> moves = new ArrayList<>();
+            for (int i = 0; i < runners.size(); i++) {
+                if (i < runnerLocs.size()) {
+                    moves.add(tpReset(runners.get(i), runnerLocs.get(i)));
+                } else {
+                    moves.add(tpReset(runners.get(i), w.getSpawnLocation()));
+                }
+            }
 
-    private void processRunnersAsync(World world, List<Player> remainingRunners, List<Location> taken, Consumer<List<Location>> onAllDone) {
-        if (remainingRunners.isEmpty()) {
-            onAllDone.accept(taken);
-            return;
-        }
+            trySetWorldSpawn(w, hunterCenter);
+            moves.add(scatterHuntersAround(hunters, hunterCenter));
 
-        int index = taken.size();
-        if (index >= remainingRunners.size()) {
-            onAllDone.accept(taken);
-            return;
-        }
-
-        findSingleRunnerSpotAsync(world, taken, (loc) -> {
-            taken.add(loc);
-            processRunnersAsync(world, remainingRunners, taken, onAllDone);
+            CompletableFuture.allOf(moves.toArray(new CompletableFuture[0])).whenComplete((v, ex) -> tasks.run(() -> {
+                if (onComplete != null) onComplete.run();
+            }));
         });
     }
 
-    private void findSingleRunnerSpotAsync(World world, List<Location> taken, Consumer<Location> onFound) {
-        int cx = world.getSpawnLocation().getBlockX();
-        int cz = world.getSpawnLocation().getBlockZ();
-        int radius = Math.max(16, Math.max(MIN_RING_RADIUS, settings.runnerRingRadius));
-        int jitter = Math.max(0, settings.runnerRingJitter);
-        int tries = Math.max(8, settings.scatterMaxTries);
+    /**
+     * 散点参数：出生点、逃亡者环半径与抖动、猎人中心的内外半径。实时搜索与出生点索引共用。
+     */
+    private SpawnIndex.Params paramsFor(World world) {
+        Location spawn = world.getSpawnLocation();
+        int ringRadius = Math.max(16, Math.max(MIN_RING_RADIUS, settings.runnerRingRadius));
+        int hunterMin = 12;
+        int hunterMax = Math.max(hunterMin + 8, ringRadius - 8);
+        return new SpawnIndex.Params(spawn.getBlockX(), spawn.getBlockZ(),
+                ringRadius, Math.max(0, settings.runnerRingJitter), hunterMin, hunterMax);
+    }
 
-        attemptFindSpotRecursively(world, cx, cz, radius, jitter, tries, taken, onFound);
+    /**
+     * 从索引中随机取点填入搜索的空位 (经空间哈希做间距检查)；索引不足的部分由实时搜索补齐。
+     */
+    private void pickFromIndex(World w, SpawnIndex index, SpotSearch search) {
+        Random rnd = ThreadLocalRandom.current();
+        int n = index.ringSize();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = order[i]; order[i] = order[j]; order[j] = t;
+        }
+        for (int i = 0; i < n && search.runnerSpots.size() < search.runnersNeeded; i++) {
+            search.acceptIndexed(index.ringAt(w, order[i]));
+        }
+        if (index.hunterSize() > 0) {
+            search.accept(false, index.hunterAt(w, rnd.nextInt(index.hunterSize())));
+        }
     }
 
-    private void attemptFindSpotRecursively(World world, int cx, int cz, int radius, int jitter, int triesLeft, List<Location> taken, Consumer<Location> callback) {
-        if (triesLeft <= 0) {
-            callback.accept(fallbackWorldSpawn(world));
-            return;
+    // =================================================================================
+    //  候选点并行搜索
+    // =================================================================================
+
+    /**
+     * 一次开局散点的候选点搜索。
+     * 逃亡者的候选点由 Poisson-disk 采样在环带上生成，彼此间距不小于 scatter.runnerMinSeparation，
+     * 因此安全的候选点可直接占用空位，不会因与已有出生点冲突而浪费次数；环带放不下时采样器自动向外加宽。
+     * 候选点用完仍有空缺时按空缺数补充采样。
+     * 所有逃亡者候选点与猎人中心的候选点共用一个在途窗口 (scatter.maxInFlight) 并行检测，全部凑齐即结束，迟到的结果丢弃。
+     * 候选总次数不超过逐个重试时的预算 (逃亡者为 人数 × maxTries，猎人中心为 maxTries)，用尽后以世界出生点补位。
+     * 所有字段只在主线程访问。
+     */
+    private final class SpotSearch {
+        private final World world;
+        private final int cx;
+        private final int cz;
+        private final int hunterMin;
+        private final int hunterMax;
+        private final int runnersNeeded;
+        private final int window;
+
+        private final List<Location> runnerSpots = new ArrayList<>();
+        // 已接受的出生点与已发出的候选点共用一张空间哈希
+        private final PoissonDiskSampler ringSampler;
+        private final Deque<double[]> runnerCandidates = new ArrayDeque<>();
+        private boolean ringExhausted = false;
+        private Location hunterCenter;
+        private int runnerBudget;
+        private int hunterBudget;
+        private int runnerInFlight = 0;
+        private int hunterInFlight = 0;
+        private boolean done = false;
+        private BiConsumer<List<Location>, Location> onDone;
+
+        SpotSearch(World world, int runnersNeeded) {
+            SpawnIndex.Params p = paramsFor(world);
+            this.world = world;
+            this.cx = p.spawnX();
+            this.cz = p.spawnZ();
+            this.hunterMin = p.hunterMin();
+            this.hunterMax = p.hunterMax();
+            this.runnersNeeded = runnersNeeded;
+            this.window = settings.scatterMaxInFlight;
+            this.ringSampler = new PoissonDiskSampler(cx, cz,
+                    Math.max(MIN_RING_RADIUS, p.ringRadius() - p.ringJitter()),
+                    p.ringRadius() + p.ringJitter(),
+                    settings.scatterRunnerMinSeparation);
+
+            int tries = Math.max(8, settings.scatterMaxTries);
+            this.runnerBudget = runnersNeeded * tries;
+            this.hunterBudget = tries;
         }
 
-        Random rnd = ThreadLocalRandom.current();
-        double ang = rnd.nextDouble() * Math.PI * 2.0;
-        int r = radius + (jitter <= 0 ? 0 : rnd.nextInt(-jitter, jitter + 1));
-        if (r < MIN_RING_RADIUS) r = MIN_RING_RADIUS;
+        void start(BiConsumer<List<Location>, Location> onDone) {
+            this.onDone = onDone;
+            pump();
+        }
 
-        int x = cx + (int) Math.round(Math.cos(ang) * r);
-        int z = cz + (int) Math.round(Math.sin(ang) * r);
+        private boolean settled() {
+            boolean runnersSettled = runnerSpots.size() >= runnersNeeded
+                    || ((runnerBudget <= 0 || nextRunnerCandidate() == null) && runnerInFlight == 0);
+            boolean hunterSettled = hunterCenter != null || (hunterBudget <= 0 && hunterInFlight == 0);
+            return runnersSettled && hunterSettled;
+        }
 
-        world.getChunkAtAsync(new Location(world, x, 0, z)).thenAccept(chunk -> {
-            tasks.run(() -> {
-                Location cand = toTopSafe(world, x, z);
-                boolean valid = (cand != null);
-
-                if (valid) {
-                    for (Location used : taken) {
-                        if (used.distanceSquared(cand) < (24 * 24)) {
-                            valid = false;
-                            break;
-                        }
-                    }
+        /** 补满在途窗口；猎人中心只需要一个点，逃亡者仍有空位时最多占两个并行位 */
+        private void pump() {
+            if (done) return;
+            if (settled()) {
+                finish();
+                return;
+            }
+            while (runnerInFlight + hunterInFlight < window) {
+                boolean needHunter = hunterCenter == null && hunterBudget > 0;
+                boolean needRunner = runnerSpots.size() < runnersNeeded && runnerBudget > 0;
+                if (needHunter && (hunterInFlight < 2 || !needRunner)) {
+                    hunterBudget--;
+                    hunterInFlight++;
+                    probe(false, hunterPoint());
+                } else if (needRunner && nextRunnerCandidate() != null) {
+                    runnerBudget--;
+                    runnerInFlight++;
+                    double[] c = runnerCandidates.poll();
+                    probe(true, new int[]{(int) Math.floor(c[0]), (int) Math.floor(c[1])});
+                } else {
+                    break;
                 }
+            }
+        }
 
-                if (valid) {
-                    callback.accept(cand);
+        private void probe(boolean runner, int[] xz) {
+            int x = xz[0];
+            int z = xz[1];
+            safeLocations.evaluate(world, x, z).whenComplete((cand, ex) -> tasks.run(() -> {
+                if (runner) runnerInFlight--; else hunterInFlight--;
+                if (done) return;
+                if (ex == null) {
+                    accept(runner, cand);
                 } else {
-                    attemptFindSpotRecursively(world, cx, cz, radius, jitter, triesLeft - 1, taken, callback);
+                    ex.printStackTrace();
                 }
-            });
-        }).exceptionally(ex -> {
-            ex.printStackTrace();
-            tasks.run(() -> callback.accept(fallbackWorldSpawn(world)));
-            return null;
-        });
-    }
+                pump();
+            }));
+        }
+
+        /**
+         * 候选点用完时按空缺数 (扣除在途部分) 补充采样；环带饱和且加宽后仍无新点时返回 null。
+         */
+        private double[] nextRunnerCandidate() {
+            if (runnerCandidates.isEmpty()) {
+                int missing = runnersNeeded - runnerSpots.size() - runnerInFlight;
+                if (missing <= 0 || ringExhausted) return null;
+                int want = Math.min(runnerBudget, missing * CANDIDATES_PER_RUNNER);
+                runnerCandidates.addAll(ringSampler.sample(want, ThreadLocalRandom.current()));
+                if (runnerCandidates.isEmpty()) ringExhausted = true;
+            }
+            return runnerCandidates.peek();
+        }
 
-    public Location findSafeSpotNearSync(Location center, int radius) {
-        if (center == null || center.getWorld() == null) return center;
-        World w = center.getWorld();
+        /** 检测结果：逃亡者候选点来自采样器，间距已有保证 */
+        private void accept(boolean runner, Location cand) {
+            if (cand == null) return;
+            if (!runner) {
+                if (hunterCenter == null) hunterCenter = cand;
+                return;
+            }
+            if (runnerSpots.size() >= runnersNeeded) return;
+            runnerSpots.add(cand);
+        }
 
-        for (int i = 0; i < 10; i++) {
-            int dx = java.util.concurrent.ThreadLocalRandom.current().nextInt(-radius, radius + 1);
-            int dz = java.util.concurrent.ThreadLocalRandom.current().nextInt(-radius, radius + 1);
+        /** 索引中的点未经采样，需登记到空间哈希并检查间距 */
+        private void acceptIndexed(Location cand) {
+            if (runnerSpots.size() >= runnersNeeded) return;
+            if (!ringSampler.tryAdd(cand.getX(), cand.getZ())) return;
+            runnerSpots.add(cand);
+        }
 
-            Location cand = toTopSafe(w, center.getBlockX() + dx, center.getBlockZ() + dz);
-            if (cand != null) return cand;
+        private void finish() {
+            done = true;
+            if (runnerSpots.size() >= runnersNeeded && hunterCenter != null) {
+                onDone.accept(runnerSpots, hunterCenter);
+                return;
+            }
+            fallbackWorldSpawn(world, fallback -> {
+                while (runnerSpots.size() < runnersNeeded) runnerSpots.add(fallback.clone());
+                onDone.accept(runnerSpots, (hunterCenter != null) ? hunterCenter : fallback);
+            });
         }
 
-        return center;
+        private int[] hunterPoint() {
+            Random rnd = ThreadLocalRandom.current();
+            double ang = rnd.nextDouble() * Math.PI * 2.0;
+            double dist = hunterMin + rnd.nextDouble() * (hunterMax - hunterMin);
+            return new int[]{cx + (int) Math.round(Math.cos(ang) * dist), cz + (int) Math.round(Math.sin(ang) * dist)};
+        }
     }
 
     // =================================================================================
-    //  Hunter 异步处理
+    //  出生点索引构建
     // =================================================================================
 
-    private void findHunterCenterAsync(World world, Consumer<Location> onFound) {
-        int cx = world.getSpawnLocation().getBlockX();
-        int cz = world.getSpawnLocation().getBlockZ();
-        int ringR = Math.max(16, Math.max(MIN_RING_RADIUS, settings.runnerRingRadius));
-        int inner = 12;
-        int outer = Math.max(inner + 8, ringR - 8);
-        int tries = Math.max(8, settings.scatterMaxTries);
-
-        attemptFindCenterRecursively(world, cx, cz, inner, outer, tries, onFound);
-    }
-
-    private void attemptFindCenterRecursively(World world, int cx, int cz, int rMin, int rMax, int triesLeft, Consumer<Location> callback) {
-        if (triesLeft <= 0) {
-            callback.accept(fallbackWorldSpawn(world));
-            return;
-        }
-
-        Random rnd = ThreadLocalRandom.current();
-        double ang = rnd.nextDouble() * Math.PI * 2.0;
-        double dist = rMin + rnd.nextDouble() * (rMax - rMin);
-        int x = cx + (int) Math.round(Math.cos(ang) * dist);
-        int z = cz + (int) Math.round(Math.sin(ang) * dist);
-
-        world.getChunkAtAsync(new Location(world, x, 0, z)).thenAccept(chunk -> {
+    /**
+     * 确保预生成完的主世界带有出生点索引：已有且参数一致时直接沿用，缺失或过期时重新构建并写入世界目录。
+     * 完成 (或失败) 后在主线程回调 onDone。
+     */
+    public void buildSpawnIndex(World world, Runnable onDone) {
+        Path indexFile = SpawnIndex.path(world);
+        SpawnIndex.Params params = paramsFor(world);
+        tasks.async(() -> {
+            SpawnIndex existing = SpawnIndex.load(indexFile);
             tasks.run(() -> {
-                Location cand = toTopSafe(world, x, z);
-                if (cand != null) {
-                    callback.accept(cand);
+                if (existing != null && existing.getParams().equals(params)) {
+                    onDone.run();
                 } else {
-                    attemptFindCenterRecursively(world, cx, cz, rMin, rMax, triesLeft - 1, callback);
+                    new IndexBuild(world, onDone).start();
                 }
             });
         });
     }
 
-    private void scatterHuntersAround(World world, List<Player> hunters, Location center) {
-        final Random rnd = ThreadLocalRandom.current();
-        final int jitterR = Math.max(0, settings.hunterCenterScatterRadius);
+    /**
+     * 逃亡者环带内的每个区块按 4 格网格检测 (至多 16 列)，猎人中心区域每隔一个区块检测中心一列。
+     * 区块异步加载 (已预生成，只读盘)，在途数为 scatter.maxInFlight 按调速器预算缩放后的值，预算为 0 时暂停；
+     * 快照在后台线程检测后回到主线程汇总。
+     */
+    private final class IndexBuild {
+        private final World world;
+        private final SpawnIndex.Params params;
+        private final Runnable onDone;
+        private final long startNanos = System.nanoTime();
+
+        // 待检测区块：chunkX, chunkZ, 是否为猎人区域
+        private final Deque<int[]> queue = new ArrayDeque<>();
+        private final List<Integer> ring = new ArrayList<>();
+        private final List<Integer> hunter = new ArrayList<>();
+        private int inFlight = 0;
+        private boolean done = false;
+
+        IndexBuild(World world, Runnable onDone) {
+            this.world = world;
+            this.params = paramsFor(world);
+            this.onDone = onDone;
+        }
 
-        for (Player h : hunters) {
-            if (h == null) continue;
-            Location target = center.clone().add(
-                    rnd.nextInt(-jitterR, jitterR + 1),
-                    0,
-                    rnd.nextInt(-jitterR, jitterR + 1)
-            );
-            Location safe = toTopSafe(world, target.getBlockX(), target.getBlockZ());
-            if (safe == null) safe = center;
-            tpReset(h, safe);
+        void start() {
+            int cx = params.spawnX();
+            int cz = params.spawnZ();
+            int ringMin = Math.max(0, params.ringRadius() - params.ringJitter());
+            int ringMax = params.ringRadius() + params.ringJitter();
+
+            for (int chX = Math.floorDiv(cx - ringMax, 16); chX <= Math.floorDiv(cx + ringMax, 16); chX++) {
+                for (int chZ = Math.floorDiv(cz - ringMax, 16); chZ <= Math.floorDiv(cz + ringMax, 16); chZ++) {
+                    int bx = chX << 4, bz = chZ << 4;
+                    double near = Math.hypot(Math.max(0, Math.max(bx - cx, cx - (bx + 15))),
+                            Math.max(0, Math.max(bz - cz, cz - (bz + 15))));
+                    double far = Math.hypot(Math.max(Math.abs(bx - cx), Math.abs(bx + 15 - cx)),
+                            Math.max(Math.abs(bz - cz), Math.abs(bz + 15 - cz)));
+                    if (near <= ringMax && far >= ringMin) queue.add(new int[]{chX, chZ, 0});
+                }
+            }
+            int hMax = params.hunterMax();
+            for (int chX = Math.floorDiv(cx - hMax, 16); chX <= Math.floorDiv(cx + hMax, 16); chX += 2) {
+                for (int chZ = Math.floorDiv(cz - hMax, 16); chZ <= Math.floorDiv(cz + hMax, 16); chZ += 2) {
+                    double d = Math.hypot((chX << 4) + 8 - cx, (chZ << 4) + 8 - cz);
+                    if (d >= params.hunterMin() && d <= hMax) queue.add(new int[]{chX, chZ, 1});
+                }
+            }
+            pump();
         }
-    }
 
-    // =================================================================================
-    //  辅助方法
-    // =================================================================================
+        private void pump() {
+            if (done) return;
+            // 槽位被取消或回收时世界已卸载，放弃构建
+            if (Bukkit.getWorld(world.getUID()) == null) {
+                done = true;
+                onDone.run();
+                return;
+            }
+            int window = (int) Math.floor(settings.scatterMaxInFlight * pregenBudget.getAsDouble());
+            if (window <= 0 && inFlight == 0 && !queue.isEmpty()) {
+                tasks.later(this::pump, INDEX_PAUSE_TICKS);
+                return;
+            }
+            while (inFlight < window && !queue.isEmpty()) {
+                int[] job = queue.poll();
+                inFlight++;
+                safeLocations.scanColumns(world, job[0], job[1], columns(job[0], job[1], job[2] == 1))
+                        .whenComplete((xyz, ex) -> tasks.run(() -> {
+                            inFlight--;
+                            if (done) return;
+                            if (ex == null) collect(xyz, job[2] == 1);
+                            pump();
+                        }));
+            }
+            if (inFlight == 0 && queue.isEmpty()) finish();
+        }
 
-    private Location toTopSafe(World world, int x, int z) {
-        int surfaceY = world.getHighestBlockYAt(x, z);
-        Biome biome = world.getBiome(x, surfaceY, z);
-        if (isWaterBiome(biome)) return null;
+        /** 区块内待检测的列 (x, z 依次排列) */
+        private int[] columns(int chX, int chZ, boolean hunterArea) {
+            if (hunterArea) return new int[]{(chX << 4) + 8, (chZ << 4) + 8};
+            int cx = params.spawnX();
+            int cz = params.spawnZ();
+            int ringMin = Math.max(0, params.ringRadius() - params.ringJitter());
+            int ringMax = params.ringRadius() + params.ringJitter();
+            int[] out = new int[32];
+            int n = 0;
+            for (int lx = 2; lx < 16; lx += 4) {
+                for (int lz = 2; lz < 16; lz += 4) {
+                    int x = (chX << 4) + lx, z = (chZ << 4) + lz;
+                    double d = Math.hypot(x - cx, z - cz);
+                    if (d < ringMin || d > ringMax) continue;
+                    out[n++] = x;
+                    out[n++] = z;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
 
-        Block top = world.getBlockAt(x, surfaceY, z);
-        if (top.getType().isAir()) {
-            top = world.getBlockAt(x, surfaceY - 1, z);
+        private void collect(int[] xyz, boolean hunterArea) {
+            List<Integer> into = hunterArea ? hunter : ring;
+            int cap = (hunterArea ? INDEX_MAX_HUNTER : INDEX_MAX_RING) * 3;
+            for (int i = 0; i + 2 < xyz.length && into.size() < cap; i += 3) {
+                into.add(xyz[i]); into.add(xyz[i + 1]); into.add(xyz[i + 2]);
+            }
         }
 
-        int y = top.getY();
-        if (!withinSafeY(world, y)) return null;
+        private void finish() {
+            done = true;
+            SpawnIndex index = new SpawnIndex(params,
+                    ring.stream().mapToInt(Integer::intValue).toArray(),
+                    hunter.stream().mapToInt(Integer::intValue).toArray());
+            Path file = SpawnIndex.path(world);
+            long ms = (System.nanoTime() - startNanos) / 1_000_000L;
+            tasks.async(() -> {
+                Logger log = tasks.getPlugin().getLogger();
+                try {
+                    index.save(file);
+                    log.info("[Spawns] Indexed " + index.ringSize() + " ring / " + index.hunterSize()
+                            + " hunter spots for " + world.getName() + " in " + ms + " ms");
+                } catch (IOException ex) {
+                    log.warning("[Spawns] Failed to write spawn index for " + world.getName() + " -> " + ex.getMessage());
+                }
+                tasks.run(onDone);
+            });
+        }
+    }
 
-        if (!isSolidGround(top.getType())) return null;
-        if (isHazardGround(top.getType())) return null;
+    /**
+     * 在 center 附近 radius 范围内寻找安全落点 (中途加入的逃亡者空投等)。
+     * 结果在主线程回调；找不到时回调 center 本身。
+     */
+    public void findSafeSpotNear(Location center, int radius, Consumer<Location> callback) {
+        if (center == null || center.getWorld() == null) {
+            callback.accept(center);
+            return;
+        }
+        safeLocations.findNear(center, radius, NEAR_SEARCH_TRIES).whenComplete((loc, ex) -> tasks.run(() ->
+                callback.accept((loc != null) ? loc : center)));
+    }
 
-        Block head  = world.getBlockAt(x, y + 1, z);
-        Block head2 = world.getBlockAt(x, y + 2, z);
-        if (!isClearSpace(head.getType())) return null;
-        if (!isClearSpace(head2.getType())) return null;
+    /**
+     * 猎人没有床位时的复活回退：世界出生点附近的安全落点，结果在主线程回调。
+     */
+    public void findRespawnFallback(World world, Consumer<Location> callback) {
+        Location spawn = world.getSpawnLocation();
+        safeLocations.findNear(spawn, RESPAWN_SEARCH_RADIUS, NEAR_SEARCH_TRIES).whenComplete((loc, ex) -> tasks.run(() ->
+                callback.accept((loc != null) ? loc : spawn.clone().add(0.5, 1, 0.5))));
+    }
 
-        return new Location(world, x + 0.5, y + 1.01, z + 0.5);
+    /** 本局结束时调用，释放落点检测缓存的区块快照 */
+    public void clearRoundCache() {
+        safeLocations.clearRoundCache();
     }
 
-    private boolean withinSafeY(World w, int y) {
-        World.Environment env = w.getEnvironment();
-        return switch (env) {
-            case NORMAL -> y >= 54 && y <= 300;
-            case NETHER -> y >= w.getMinHeight() + 6 && y <= w.getMaxHeight() - 6;
-            case THE_END -> y >= 40 && y <= 300;
-            default -> true;
-        };
+    // =================================================================================
+    //  Hunter 散布
+    // =================================================================================
+
+    /**
+     * 猎人在中心周围 hunterCenterScatterRadius 内按 Poisson-disk 采样错开 (间距 HUNTER_SPACING，不向外加宽)，
+     * 所有落点并行检测，全部就绪后统一提交传送。半径为 0 或范围内放不下时落在中心。
+     *
+     * @return 所有猎人传送完成时完成
+     */
+    private CompletableFuture<Void> scatterHuntersAround(List<Player> hunters, Location center) {
+        final Random rnd = ThreadLocalRandom.current();
+        final int jitterR = Math.max(0, settings.hunterCenterScatterRadius);
+
+        List<Player> targets = new ArrayList<>();
+        for (Player h : hunters) {
+            if (h != null) targets.add(h);
+        }
+        if (jitterR == 0) {
+            List<CompletableFuture<Boolean>> moves = new ArrayList<>();
+            for (Player h : targets) moves.add(tpReset(h, center));
+            return CompletableFuture.allOf(moves.toArray(new CompletableFuture[0]));
+        }
+        PoissonDiskSampler sampler = new PoissonDiskSampler(center.getX(), center.getZ(), 0, jitterR, HUNTER_SPACING, 0);
+        List<double[]> offsets = sampler.sample(targets.size(), rnd);
+
+        List<CompletableFuture<Location>> spots = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            int x = (i < offsets.size()) ? (int) Math.floor(offsets.get(i)[0]) : center.getBlockX();
+            int z = (i < offsets.size()) ? (int) Math.floor(offsets.get(i)[1]) : center.getBlockZ();
+            spots.add(safeLocations.evaluate(center.getWorld(), x, z));
+        }
+
+        CompletableFuture<Void> landed = new CompletableFuture<>();
+        CompletableFuture.allOf(spots.toArray(new CompletableFuture[0])).whenComplete((v, ex) -> tasks.run(() -> {
+            List<CompletableFuture<Boolean>> moves = new ArrayList<>();
+            for (int i = 0; i < targets.size(); i++) {
+                CompletableFuture<Location> f = spots.get(i);
+                Location safe = f.isCompletedExceptionally() ? null : f.getNow(null);
+                moves.add(tpReset(targets.get(i), (safe != null) ? safe : center));
+            }
+            CompletableFuture.allOf(moves.toArray(new CompletableFuture[0])).whenComplete((v2, ex2) -> landed.complete(null));
+        }));
+        return landed;
     }
 
-    private Location fallbackWorldSpawn(World world) {
+    // =================================================================================
+    //  辅助方法
+    // =================================================================================
+
+    private void fallbackWorldSpawn(World world, Consumer<Location> callback) {
         Location s = world.getSpawnLocation();
-        Location safe = toTopSafe(world, s.getBlockX(), s.getBlockZ());
-        return (safe != null) ? safe : s.clone().add(0.5, 1, 0.5);
+        safeLocations.evaluate(world, s.getBlockX(), s.getBlockZ()).whenComplete((safe, ex) -> tasks.run(() ->
+                callback.accept((safe != null) ? safe : s.clone().add(0.5, 1, 0.5))));
     }
 
-    private void tpReset(Player p, Location loc) {
-        try {
-            p.teleport(loc);
-            p.setFallDistance(0f);
-            p.setFireTicks(0);
-        } catch (Throwable ignored) {}
+    private CompletableFuture<Boolean> tpReset(Player p, Location loc) {
+        return teleports.submit(p, loc, landed -> {
+            landed.setFallDistance(0f);
+            landed.setFireTicks(0);
+        });
     }
 
     private void trySetWorldSpawn(World world, Location loc) {
@@ -276,33 +549,4 @@ public final class SpawnScatterManager {
             world.setGameRule(GameRules.RESPAWN_RADIUS, 0);
         } catch (Throwable ignored) {}
     }
-
-    private boolean isWaterBiome(Biome b) {
-        return b != null && WATER_BIOMES.contains(b);
-    }
-
-    private boolean isLiquid(Material m) {
-        return m == Material.WATER || m == Material.LAVA;
-    }
-
-    private boolean isClearSpace(Material m) {
-        if (m.isAir()) return true;
-        if (isLiquid(m)) return false;
-        return !m.isOccluding();
-    }
-
-    private boolean isSolidGround(Material m) {
-        return m != null && !m.isAir() && m.isSolid() && !isLiquid(m);
-    }
-
-    private boolean isHazardGround(Material m) {
-        return switch (m) {
-            case SAND, RED_SAND, GRAVEL,
-                 CACTUS, CAMPFIRE, SOUL_CAMPFIRE,
-                 MAGMA_BLOCK,
-                 SWEET_BERRY_BUSH,
-                 POWDER_SNOW -> true;
-            default -> false;
-        };
-    }
-}
\ No newline at end of file
+}
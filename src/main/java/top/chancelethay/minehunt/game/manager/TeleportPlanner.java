@@ -0,0 +1,195 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import top.chancelethay.minehunt.utils.Settings;
+import top.chancelethay.minehunt.utils.Tasks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 传送计划器
+ *
+ * 所有批量传送 (开局散点、角色切换、赛后送回大厅) 都经由这里排队：
+ * 同一玩家在放行前的多次传送请求合并为最后一次 (目标取最后一次，落地回调全部保留)；提交时即异步预取目标区块，
+ * 之后每 tick 按 MSPT 余量放行一批 (teleport.maxPerTick 到 1 个)，通过 teleportAsync 完成传送，
+ * 避免几十名玩家同时进入新地形时主线程同步加载区块、客户端区块发送拥塞。
+ * 区块迟迟未就绪的请求在等待 MAX_WAIT_TICKS 后直接放行，由 teleportAsync 自行加载。
+ * 所有方法只应在主线程调用。
+ */
+public final class TeleportPlanner {
+
+    private static final int MAX_WAIT_TICKS = 100;
+    // 一个 tick 的时长，MSPT 达到此值时只放行一个
+    private static final double TICK_MSPT = 50.0;
+
+    private static final class Request {
+        final Player player;
+        Location target;
+        // 合并前后各次请求的落地回调，按提交顺序执行
+        final List<Consumer<Player>> after = new ArrayList<>();
+        CompletableFuture<?> chunk;
+        int waited = 0;
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+
+        Request(Player player) {
+            this.player = player;
+        }
+    }
+
+    private final Tasks tasks;
+    private final Settings settings;
+
+    // 按提交顺序放行
+    private final Map<UUID, Request> pending = new LinkedHashMap<>();
+    private final List<CompletableFuture<Void>> idleWaiters = new ArrayList<>();
+    private BukkitTask task;
+    private int inFlight = 0;
+
+    public TeleportPlanner(Tasks tasks, Settings settings) {
+        this.tasks = tasks;
+        this.settings = settings;
+    }
+
+    public int getPending() {
+        return pending.size() + inFlight;
+    }
+
+    /**
+     * 计划一次传送。该玩家已有未放行的请求时改为新的目标，旧请求的落地回调保留，Future 随新请求一同完成。
+     *
+     * @param after 传送成功后在主线程执行，排在此前合并的回调之后 (可为 null)
+     * @return 传送结果；玩家离线或传送失败时为 false
+     */
+    public CompletableFuture<Boolean> submit(Player p, Location target, Consumer<Player> after) {
+        if (p == null || target == null || target.getWorld() == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        Request r = pending.get(p.getUniqueId());
+        if (r != null && r.player != p) {
+            // 玩家重新登录，旧请求作废
+            r.done.complete(false);
+            r = null;
+        }
+        if (r == null) {
+            r = new Request(p);
+            pending.put(p.getUniqueId(), r);
+        }
+        Location prev = r.target;
+        r.target = target.clone();
+        if (after != null) r.after.add(after);
+        r.waited = 0;
+        if (prev == null || !sameChunk(prev, target)) r.chunk = prefetch(target);
+
+        if (task == null) task = tasks.repeat(this::drain, 1L, 1L);
+        return r.done;
+    }
+
+    /**
+     * 当前所有已计划的传送 (含已放行、尚未完成的) 结束后完成。
+     */
+    public CompletableFuture<Void> whenIdle() {
+        if (pending.isEmpty() && inFlight == 0) return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> f = new CompletableFuture<>();
+        idleWaiters.add(f);
+        return f;
+    }
+
+    public void shutdown() {
+        tasks.cancel(task);
+        task = null;
+        for (Request r : pending.values()) r.done.complete(false);
+        pending.clear();
+        completeIdleWaiters();
+    }
+
+    private void drain() {
+        int budget = batchSize();
+        Iterator<Request> it = pending.values().iterator();
+        while (it.hasNext() && budget > 0) {
+            Request r = it.next();
+            if (!r.player.isOnline()) {
+                it.remove();
+                r.done.complete(false);
+                continue;
+            }
+            if (!r.chunk.isDone() && ++r.waited < MAX_WAIT_TICKS) continue;
+
+            it.remove();
+            budget--;
+            release(r);
+        }
+
+        if (pending.isEmpty()) {
+            tasks.cancel(task);
+            task = null;
+            if (inFlight == 0) completeIdleWaiters();
+        }
+    }
+
+    private void release(Request r) {
+        inFlight++;
+        Player p = r.player;
+        CompletableFuture<Boolean> tp;
+        try {
+            tp = p.teleportAsync(r.target);
+        } catch (Throwable t) {
+            tp = CompletableFuture.completedFuture(false);
+        }
+        tp.whenComplete((ok, ex) -> tasks.run(() -> {
+            inFlight--;
+            boolean success = ex == null && Boolean.TRUE.equals(ok);
+            if (success) {
+                for (Consumer<Player> cb : r.after) {
+                    try { cb.accept(p); } catch (Throwable ignored) {}
+                }
+            }
+            r.done.complete(success);
+            if (pending.isEmpty() && inFlight == 0) completeIdleWaiters();
+        }));
+    }
+
+    /**
+     * 每 tick 放行数：MSPT 不超过 teleport.slowMspt 时为 maxPerTick，到 50 ms 时线性降到 1。
+     */
+    private int batchSize() {
+        int max = settings.teleportMaxPerTick;
+        double mspt = Bukkit.getAverageTickTime();
+        double slow = settings.teleportSlowMspt;
+        if (mspt <= slow) return max;
+        double headroom = (TICK_MSPT - mspt) / Math.max(0.001, TICK_MSPT - slow);
+        return Math.max(1, (int) Math.round(max * Math.clamp(headroom, 0.0, 1.0)));
+    }
+
+    private CompletableFuture<?> prefetch(Location target) {
+        World w = target.getWorld();
+        try {
+            return w.getChunkAtAsync(target.getBlockX() >> 4, target.getBlockZ() >> 4);
+        } catch (Throwable t) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void completeIdleWaiters() {
+        List<CompletableFuture<Void>> waiters = new ArrayList<>(idleWaiters);
+        idleWaiters.clear();
+        for (CompletableFuture<Void> f : waiters) f.complete(null);
+    }
+
+    private static boolean sameChunk(Location a, Location b) {
+        return a.getWorld() == b.getWorld()
+                && (a.getBlockX() >> 4) == (b.getBlockX() >> 4)
+                && (a.getBlockZ() >> 4) == (b.getBlockZ() >> 4);
+    }
+}
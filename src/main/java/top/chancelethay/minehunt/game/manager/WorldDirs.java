@@ -0,0 +1,126 @@
+package top.chancelethay.minehunt.game.manager;
+
+import top.chancelethay.minehunt.utils.WorldFiles;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * 世界目录位置解析
+ *
+ * 配置了 world.gameContainer (例如 tmpfs 挂载点) 时，游戏世界组的真实目录放在该目录下，
+ * 服务端世界容器中只保留同名符号链接，区域文件读写与删除、移动都不经过持久化磁盘；大厅世界始终留在世界容器中。
+ * 启用前遗留在世界容器中的真实目录照常使用，直到下一次被删除或移走后再迁往新位置。
+ * 文件操作一律使用 {@link #dir(String)} 返回的真实路径：Files.walkFileTree 与 Files.move 不会跟随作为根的符号链接。
+ * 1.20 起服务端拒绝加载目标不在 allowed_symlinks.txt 白名单中的符号链接世界，启用前须先调用 {@link #allowSymlinks()}。
+ */
+public final class WorldDirs {
+
+    private static final String ALLOWED_SYMLINKS = "allowed_symlinks.txt";
+
+    private final Path container;
+    private final Path gameContainer;
+    private final String lobbyWorld;
+    private final Logger log;
+
+    public WorldDirs(Path container, String gameContainer, String lobbyWorld, Logger log) {
+        this.container = container;
+        this.gameContainer = (gameContainer == null || gameContainer.isBlank())
+                ? null : Paths.get(gameContainer).toAbsolutePath().normalize();
+        this.lobbyWorld = lobbyWorld;
+        this.log = log;
+    }
+
+    /** 是否把游戏世界放在独立目录中 */
+    public boolean isSplit() { return gameContainer != null; }
+
+    public Path getGameContainer() { return gameContainer; }
+
+    /** 服务端视角下的世界目录 (启用独立目录时为符号链接) */
+    public Path link(String name) {
+        return container.resolve(name);
+    }
+
+    /** 世界目录的真实位置 */
+    public Path dir(String name) {
+        Path link = link(name);
+        if (gameContainer == null || name.equals(lobbyWorld)) return link;
+        if (Files.isDirectory(link, LinkOption.NOFOLLOW_LINKS)) return link;
+        return gameContainer.resolve(name);
+    }
+
+    /** 真实目录是否位于独立的游戏世界目录中 */
+    public boolean isInGameContainer(Path dir) {
+        return gameContainer != null && dir.startsWith(gameContainer);
+    }
+
+    /**
+     * 创建或加载世界前调用：在真实位置建好目录，并在世界容器中放置指向它的符号链接。
+     */
+    public void prepare(String name) throws IOException {
+        Path real = dir(name);
+        Path link = link(name);
+        if (real.equals(link)) return;
+
+        Files.createDirectories(real);
+        if (Files.isSymbolicLink(link)) {
+            if (Files.readSymbolicLink(link).equals(real)) return;
+            Files.delete(link);
+        }
+        Files.createSymbolicLink(link, real);
+        log.info("[Worlds] Linked " + name + " -> " + real);
+    }
+
+    /**
+     * 确保世界容器中的 allowed_symlinks.txt 放行独立目录：缺少对应规则时追加一行 [prefix] 规则。
+     * 服务端每次创建世界都会重新读取该文件，无需重启。
+     *
+     * @throws IOException 无法读写白名单时抛出，此时不应启用独立目录
+     */
+    public void allowSymlinks() throws IOException {
+        Files.createDirectories(gameContainer);
+        String rule = "[prefix]" + gameContainer + gameContainer.getFileSystem().getSeparator();
+        Path file = container.resolve(ALLOWED_SYMLINKS);
+
+        String existing = Files.isRegularFile(file) ? Files.readString(file) : "";
+        for (String line : existing.split("\\R")) {
+            if (line.trim().equals(rule)) return;
+        }
+        String sep = System.lineSeparator();
+        String append = (existing.isEmpty() || existing.endsWith("\n") ? "" : sep) + rule + sep;
+        Files.writeString(file, append, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("[Worlds] Added " + rule + " to " + file);
+    }
+
+    /** 删除世界容器中的符号链接 (若有)，真实目录由调用方处理 */
+    public void unlink(String name) throws IOException {
+        Path link = link(name);
+        if (Files.isSymbolicLink(link)) Files.delete(link);
+    }
+
+    /**
+     * 移动世界目录。同一文件系统内为原子重命名；跨文件系统 (遗留目录迁往独立目录) 时退化为复制后删除。
+     * 随后更新两端的符号链接。
+     */
+    public void move(String from, String to) throws IOException {
+        Path src = dir(from);
+        Path dst = dir(to);
+        try {
+            Files.move(src, dst, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            log.info("[Worlds] Cross-filesystem move for " + from + ", copying");
+            WorldFiles.copyTree(src, dst, Set.of());
+            WorldFiles.deleteTree(src);
+        }
+        unlink(from);
+        prepare(to);
+    }
+}
@@ -0,0 +1,115 @@
+package top.chancelethay.minehunt.game.manager;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * 世界预生成日志
+ *
+ * 在插件数据目录的 prepare-journal.yml 中按世界组基础名记录预生成状态：
+ * 种子、已完成的维度数、各维度进度、是否完成以及完成时各维度目录的指纹。
+ * 完成后仍保持加载的世界组 (flipPromote) 只记录区域文件名，不含大小，后续保存不会使指纹失效。
+ * 服务器中途重启后，GameWorldManager 据此直接采用已完成的备用世界组，或从中断的维度继续预生成。
+ */
+public final class WorldPrepJournal {
+
+    private static final String FILE_NAME = "prepare-journal.yml";
+
+    private final File file;
+    private final Logger log;
+    private final YamlConfiguration yml;
+
+    /** 单个世界组的日志记录 */
+    public record Entry(String base, long seed, boolean useSeed, String signature,
+                        int dimsDone, int[] progress, boolean completed, List<Long> checksums,
+                        boolean namesOnly) {}
+
+    public WorldPrepJournal(Plugin plugin) {
+        this.file = new File(plugin.getDataFolder(), FILE_NAME);
+        this.log = plugin.getLogger();
+        this.yml = file.isFile() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
+    }
+
+    public Entry get(String base) {
+        ConfigurationSection sec = yml.getConfigurationSection(path(base));
+        if (sec == null) return null;
+
+        List<Integer> p = sec.getIntegerList("progress");
+        int[] progress = new int[3];
+        for (int i = 0; i < Math.min(3, p.size()); i++) progress[i] = p.get(i);
+
+        return new Entry(base,
+                sec.getLong("seed"),
+                sec.getBoolean("useSeed"),
+                sec.getString("signature", ""),
+                sec.getInt("dimsDone"),
+                progress,
+                sec.getBoolean("completed"),
+                sec.getLongList("checksums"),
+                sec.getBoolean("namesOnly"));
+    }
+
+    /** 开始生成一个世界组，覆盖旧记录 */
+    public void begin(String base, long seed, boolean useSeed, String signature) {
+        yml.set(path(base), null);
+        ConfigurationSection sec = yml.createSection(path(base));
+        sec.set("seed", seed);
+        sec.set("useSeed", useSeed);
+        sec.set("signature", signature);
+        sec.set("dimsDone", 0);
+        sec.set("progress", List.of(0, 0, 0));
+        sec.set("completed", false);
+        save();
+    }
+
+    /** 记录已完成的维度数与当前进度 */
+    public void progress(String base, int dimsDone, int[] progress) {
+        if (!yml.isConfigurationSection(path(base))) return;
+        yml.set(path(base) + ".dimsDone", dimsDone);
+        yml.set(path(base) + ".progress", toList(progress));
+        save();
+    }
+
+    /** 标记世界组已完成，并记录各维度目录指纹；namesOnly 表示指纹不含文件大小 */
+    public void complete(String base, String signature, List<Long> checksums, boolean namesOnly) {
+        ConfigurationSection sec = yml.getConfigurationSection(path(base));
+        if (sec == null) sec = yml.createSection(path(base));
+        sec.set("signature", signature);
+        sec.set("dimsDone", 3);
+        sec.set("progress", List.of(100, 100, 100));
+        sec.set("completed", true);
+        sec.set("checksums", checksums);
+        sec.set("namesOnly", namesOnly);
+        save();
+    }
+
+    public void remove(String base) {
+        if (!yml.contains(path(base))) return;
+        yml.set(path(base), null);
+        save();
+    }
+
+    private static String path(String base) {
+        return "sets." + base;
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> out = new ArrayList<>(values.length);
+        for (int v : values) out.add(v);
+        return out;
+    }
+
+    private void save() {
+        try {
+            yml.save(file);
+        } catch (Throwable ex) {
+            log.warning("[Worlds] Failed to save " + FILE_NAME + " -> " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package top.chancelethay.minehunt.game.manager;
+
+import top.chancelethay.minehunt.utils.WorldFiles;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 按种子缓存的预生成世界组
+ *
+ * 以“种子 + 生成器 + 预加载半径 + 游戏版本”的摘要为键，在缓存目录下保存预生成完成的世界组副本
+ * (每个维度一个子目录，另有一个 cache.properties 记录种子、大小与最近使用时间)。
+ * 再次抽到同一种子时直接复制缓存，省去整轮 createWorld 与预生成；总大小超出上限时淘汰最久未用的条目。
+ * 所有方法都会做文件 I/O，只应在后台线程调用。
+ */
+public final class WorldSetCache {
+
+    private static final String META = "cache.properties";
+    private static final String TMP_PREFIX = ".tmp-";
+    private static final String[] DIM_DIRS = {"overworld", "nether", "the_end"};
+
+    private final Path root;
+    private final Logger log;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public WorldSetCache(Path root, Logger log) {
+        this.root = root;
+        this.log = log;
+    }
+
+    /**
+     * 缓存键：生成器参数的 SHA-256 摘要 (截取前 24 位十六进制)。
+     */
+    public static String key(long seed, String generator, int[] radii, String version) {
+        String raw = "seed=" + seed + ";generator=" + generator
+                + ";radius=" + radii[0] + "," + radii[1] + "," + radii[2] + ";version=" + version;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(raw.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public synchronized boolean contains(String key) {
+        boolean found = Files.isRegularFile(root.resolve(key).resolve(META));
+        (found ? hits : misses).incrementAndGet();
+        return found;
+    }
+
+    /**
+     * 把缓存的世界组复制到目标目录 (按主世界/下界/末地顺序)，并刷新最近使用时间。
+     * 目标目录应已清空。
+     *
+     * @return 复制的字节数
+     */
+    public synchronized long restore(String key, Path[] targets, Set<String> skipNames) throws IOException {
+        Path entry = root.resolve(key);
+        long bytes = 0L;
+        for (int dim = 0; dim < DIM_DIRS.length; dim++) {
+            Path src = entry.resolve(DIM_DIRS[dim]);
+            if (Files.isDirectory(src)) bytes += WorldFiles.copyTree(src, targets[dim], skipNames);
+        }
+        Properties meta = readMeta(entry);
+        meta.setProperty("lastUsed", Long.toString(System.currentTimeMillis()));
+        writeMeta(entry, meta);
+        return bytes;
+    }
+
+    /**
+     * 把预生成完成的世界组存入缓存：先复制到临时目录，完成后原子重命名，中途失败不会留下半个条目。
+     * 随后按 maxBytes 淘汰最久未用的条目 (刚存入的除外)。
+     */
+    public synchronized void store(String key, long seed, Path[] sources, Set<String> skipNames, long maxBytes) throws IOException {
+        Path entry = root.resolve(key);
+        if (Files.isRegularFile(entry.resolve(META))) return;
+
+        Files.createDirectories(root);
+        Path tmp = root.resolve(TMP_PREFIX + key);
+        WorldFiles.deleteTree(tmp);
+
+        long bytes = 0L;
+        for (int dim = 0; dim < DIM_DIRS.length; dim++) {
+            if (Files.isDirectory(sources[dim])) {
+                bytes += WorldFiles.copyTree(sources[dim], tmp.resolve(DIM_DIRS[dim]), skipNames);
+            }
+        }
+        Properties meta = new Properties();
+        meta.setProperty("seed", Long.toString(seed));
+        meta.setProperty("bytes", Long.toString(bytes));
+        meta.setProperty("lastUsed", Long.toString(System.currentTimeMillis()));
+        writeMeta(tmp, meta);
+
+        WorldFiles.deleteTree(entry);
+        Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE);
+        log.info("[Seeds] Cached world set for seed " + seed + " (" + (bytes >> 20) + " MB, key " + key + ")");
+
+        evict(maxBytes, key);
+    }
+
+    private void evict(long maxBytes, String keep) {
+        List<Path> list = entries();
+        long total = 0L;
+        for (Path entry : list) total += parseLong(readMeta(entry).getProperty("bytes"));
+        if (total <= maxBytes) return;
+
+        list.sort(Comparator.comparingLong(p -> parseLong(readMeta(p).getProperty("lastUsed"))));
+        for (Path entry : list) {
+            if (total <= maxBytes) break;
+            if (entry.getFileName().toString().equals(keep)) continue;
+            long bytes = parseLong(readMeta(entry).getProperty("bytes"));
+            try {
+                // 先删元数据，删除中途失败时该条目也不会再被命中
+                Files.deleteIfExists(entry.resolve(META));
+                WorldFiles.deleteTree(entry);
+                total -= bytes;
+                log.info("[Seeds] Evicted cached world set " + entry.getFileName() + " (" + (bytes >> 20) + " MB)");
+            } catch (IOException ex) {
+                log.warning("[Seeds] Failed to evict " + entry.getFileName() + " -> " + ex.getMessage());
+            }
+        }
+    }
+
+    private List<Path> entries() {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(root)) return out;
+        try (Stream<Path> s = Files.list(root)) {
+            s.filter(p -> Files.isRegularFile(p.resolve(META))).forEach(out::add);
+        } catch (IOException ignored) {}
+        return out;
+    }
+
+    private static Properties readMeta(Path entry) {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(entry.resolve(META), StandardCharsets.UTF_8)) {
+            p.load(r);
+        } catch (IOException ignored) {}
+        return p;
+    }
+
+    private static void writeMeta(Path entry, Properties meta) throws IOException {
+        Files.createDirectories(entry);
+        try (Writer w = Files.newBufferedWriter(entry.resolve(META), StandardCharsets.UTF_8)) {
+            meta.store(w, null);
+        }
+    }
+
+    private static long parseLong(String s) {
+        if (s == null) return 0L;
+        try { return Long.parseLong(s.trim()); } catch (NumberFormatException ex) { return 0L; }
+    }
+}
@@ -0,0 +1,141 @@
+package top.chancelethay.minehunt.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Anvil 区域文件 (.mca) 的区块级读写工具
+ *
+ * 区域文件前 8KB 为头部：1024 个位置项 (3 字节扇区偏移 + 1 字节扇区数) 与 1024 个时间戳，
+ * 之后按 4KB 扇区存放区块数据。region / entities / poi 三类目录共用此格式。
+ * 源文件以只读方式内存映射，目标文件仅映射头部，区块数据按扇区写入。
+ */
+public final class RegionFileIO {
+
+    private static final int SECTOR = 4096;
+    private static final int HEADER = SECTOR * 2;
+    private static final int EXTERNAL_FLAG = 0x80;
+
+    private RegionFileIO() {}
+
+    /** 区块坐标在所属区域文件中的索引 (0..1023) */
+    public static int localIndex(int chunkX, int chunkZ) {
+        return (chunkX & 31) + (chunkZ & 31) * 32;
+    }
+
+    public static String regionFileName(int regionX, int regionZ) {
+        return "r." + regionX + "." + regionZ + ".mca";
+    }
+
+    /**
+     * 将原始区域文件中的指定区块条目覆盖回目标区域文件。
+     * 原始文件中不存在的区块会从目标头部清除；原始文件整体缺失时直接删除目标文件。
+     *
+     * @return 写入目标文件的字节数
+     */
+    public static long restoreChunks(Path pristine, Path live, int regionX, int regionZ,
+                                     Collection<Integer> indices) throws IOException {
+        if (!Files.isRegularFile(pristine)) {
+            // 该区域在模板中不存在，说明是本轮新生成的地形
+            Files.deleteIfExists(live);
+            for (int idx : indices) deleteExternal(live, regionX, regionZ, idx);
+            return 0L;
+        }
+        if (!Files.isRegularFile(live) || Files.size(live) < HEADER) {
+            Files.createDirectories(live.getParent());
+            Files.copy(pristine, live, StandardCopyOption.REPLACE_EXISTING);
+            return Files.size(pristine);
+        }
+
+        long written = 0L;
+        try (FileChannel src = FileChannel.open(pristine, StandardOpenOption.READ);
+             FileChannel dst = FileChannel.open(live, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            long srcSize = src.size();
+            MappedByteBuffer in = src.map(FileChannel.MapMode.READ_ONLY, 0, srcSize);
+            MappedByteBuffer header = dst.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+            long end = alignUp(dst.size());
+
+            for (int idx : indices) {
+                int srcLoc = in.getInt(idx * 4);
+                int srcStamp = in.getInt(SECTOR + idx * 4);
+                int dstLoc = header.getInt(idx * 4);
+
+                if (srcLoc == 0) {
+                    header.putInt(idx * 4, 0);
+                    header.putInt(SECTOR + idx * 4, 0);
+                    deleteExternal(live, regionX, regionZ, idx);
+                    continue;
+                }
+
+                long srcOff = (long) (srcLoc >>> 8) * SECTOR;
+                int sectors = srcLoc & 0xFF;
+                int len = (int) Math.min((long) sectors * SECTOR, srcSize - srcOff);
+                if (srcOff < HEADER || len <= 5) continue;
+
+                ByteBuffer data = in.slice((int) srcOff, len);
+                boolean external = (data.get(4) & EXTERNAL_FLAG) != 0;
+
+                // 原位置足够大时原地覆盖，否则追加到文件末尾
+                long target;
+                if (dstLoc != 0 && (dstLoc & 0xFF) >= sectors) {
+                    target = (long) (dstLoc >>> 8) * SECTOR;
+                } else {
+                    target = end;
+                    end += (long) sectors * SECTOR;
+                }
+
+                long pos = target;
+                while (data.hasRemaining()) {
+                    pos += dst.write(data, pos);
+                }
+
+                header.putInt(idx * 4, (int) ((target / SECTOR) << 8) | sectors);
+                header.putInt(SECTOR + idx * 4, srcStamp);
+                written += len;
+
+                if (external) {
+                    copyExternal(pristine, live, regionX, regionZ, idx);
+                } else {
+                    deleteExternal(live, regionX, regionZ, idx);
+                }
+            }
+
+            // 保持文件长度按扇区对齐
+            if (dst.size() < end) {
+                dst.write(ByteBuffer.wrap(new byte[1]), end - 1);
+            }
+            header.force();
+        }
+        return written;
+    }
+
+    private static long alignUp(long size) {
+        long rem = size % SECTOR;
+        return rem == 0 ? size : size + (SECTOR - rem);
+    }
+
+    private static Path externalFile(Path region, int regionX, int regionZ, int idx) {
+        int cx = regionX * 32 + (idx & 31);
+        int cz = regionZ * 32 + (idx >> 5);
+        return region.resolveSibling("c." + cx + "." + cz + ".mcc");
+    }
+
+    private static void copyExternal(Path pristine, Path live, int regionX, int regionZ, int idx) throws IOException {
+        Path src = externalFile(pristine, regionX, regionZ, idx);
+        if (Files.isRegularFile(src)) {
+            Files.copy(src, externalFile(live, regionX, regionZ, idx), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteExternal(Path live, int regionX, int regionZ, int idx) throws IOException {
+        Files.deleteIfExists(externalFile(live, regionX, regionZ, idx));
+    }
+}
@@ -1,11 +1,21 @@
 package top.chancelethay.minehunt.utils;
 
+import java.util.List;
+
 /**
  * Settings
  * 插件配置的不可变快照对象。
  * 包含所有从 utils.yml 读取的游戏参数。
  */
 public final class Settings {
+    // 重置模式
+    public static final String RESET_MODE_REGENERATE = "regenerate";
+    public static final String RESET_MODE_TEMPLATE = "template";
+
+    // 预生成后端
+    public static final String PREGEN_BACKEND_AUTO = "auto";
+    public static final String PREGEN_BACKEND_BUILTIN = "builtin";
+
     // 基础世界设置
     public final String lobbyWorld;
     public final String gameWorld;
@@ -16,6 +26,20 @@ public final class Settings {
     public final int postgameSendBackDelaySec;
     public final boolean resetBlockStartWhileResetting;
     public final boolean resetRandomSeedEachRound;
+    public final int resetPoolSize;
+    public final String resetMode;
+    public final boolean resetPartialRestore;
+    public final boolean resetFlipPromote;
+
+    // 种子预筛选
+    public final boolean seedScreenEnabled;
+    public final int seedScreenMaxAttempts;
+    public final boolean seedScreenRejectOceanSpawn;
+    public final double seedScreenMaxOceanRatio;
+    public final int seedScreenMaxStrongholdDistance;
+    public final List<Long> resetSeedList;
+    public final boolean seedCacheEnabled;
+    public final int seedCacheMaxSizeMb;
     public final int autoStartMinPlayers;
     public final int autoStartCountdownSec;
     public final boolean autoAssignOnJoin;
@@ -29,9 +53,48 @@ public final class Settings {
     public final int runnerRingJitter;
     public final int hunterCenterScatterRadius;
     public final int scatterMaxTries;
+    public final int scatterMaxInFlight;
+    public final int scatterRunnerMinSeparation;
+
+    // 传送批处理
+    public final int teleportMaxPerTick;
+    public final double teleportSlowMspt;
 
     // 性能优化
     public final int worldPreloadRadiusBlocks;
+    public final int worldPreloadRadiusNether;
+    public final int worldPreloadRadiusEnd;
+    public final boolean worldPreloadAdaptiveEnabled;
+    public final int worldPreloadAdaptiveMinRounds;
+    public final int worldPreloadAdaptiveMinRadius;
+    public final int worldPreloadAdaptiveMaxRadius;
+    public final int worldPreloadAdaptiveHistorySize;
+    public final boolean worldLazyDimensions;
+    public final int worldLazyIdleUnloadSec;
+    public final boolean worldDiscardable;
+    public final String worldGameContainer;
+    public final String worldPregenBackend;
+    public final int worldPregenMaxInFlight;
+    public final int worldPregenRetries;
+    public final int worldPregenStallTimeoutSec;
+
+    // 预生成调速 (MSPT/TPS 阈值)
+    public final boolean throttleEnabled;
+    public final double throttleRunningSlowMspt;
+    public final double throttleRunningPauseMspt;
+    public final double throttleRunningMinTps;
+    public final double throttleRunningMaxBudget;
+    public final double throttleIdleSlowMspt;
+    public final double throttleIdlePauseMspt;
+    public final double throttleIdleMinTps;
+    public final int worldTrashWorkers;
+    public final int worldTrashMaxFilesPerSecond;
+    public final boolean worldArchiveEnabled;
+    public final String worldArchiveDir;
+    public final int worldArchiveCompressionLevel;
+    public final int worldArchiveMaxMbPerSecond;
+    public final int worldArchiveMaxQueued;
+    public final int worldArchiveKeep;
 
     public final boolean useExternalChat;
     public final boolean useExternalTab;
@@ -46,6 +109,18 @@ public final class Settings {
             int postgameSendBackDelaySec,
             boolean resetBlockStartWhileResetting,
             boolean resetRandomSeedEachRound,
+            int resetPoolSize,
+            String resetMode,
+            boolean resetPartialRestore,
+            boolean resetFlipPromote,
+            boolean seedScreenEnabled,
+            int seedScreenMaxAttempts,
+            boolean seedScreenRejectOceanSpawn,
+            double seedScreenMaxOceanRatio,
+            int seedScreenMaxStrongholdDistance,
+            List<Long> resetSeedList,
+            boolean seedCacheEnabled,
+            int seedCacheMaxSizeMb,
             int autoStartMinPlayers,
             int autoStartCountdownSec,
             boolean autoAssignOnJoin,
@@ -55,7 +130,42 @@ public final class Settings {
             int runnerRingJitter,
             int hunterCenterScatterRadius,
             int scatterMaxTries,
+            int scatterMaxInFlight,
+            int scatterRunnerMinSeparation,
+            int teleportMaxPerTick,
+            double teleportSlowMspt,
             int worldPreloadRadiusBlocks,
+            int worldPreloadRadiusNether,
+            int worldPreloadRadiusEnd,
+            boolean worldPreloadAdaptiveEnabled,
+            int worldPreloadAdaptiveMinRounds,
+            int worldPreloadAdaptiveMinRadius,
+            int worldPreloadAdaptiveMaxRadius,
+            int worldPreloadAdaptiveHistorySize,
+            boolean worldLazyDimensions,
+            int worldLazyIdleUnloadSec,
+            boolean worldDiscardable,
+            String worldGameContainer,
+            String worldPregenBackend,
+            int worldPregenMaxInFlight,
+            int worldPregenRetries,
+            int worldPregenStallTimeoutSec,
+            boolean throttleEnabled,
+            double throttleRunningSlowMspt,
+            double throttleRunningPauseMspt,
+            double throttleRunningMinTps,
+            double throttleRunningMaxBudget,
+            double throttleIdleSlowMspt,
+            double throttleIdlePauseMspt,
+            double throttleIdleMinTps,
+            int worldTrashWorkers,
+            int worldTrashMaxFilesPerSecond,
+            boolean worldArchiveEnabled,
+            String worldArchiveDir,
+            int worldArchiveCompressionLevel,
+            int worldArchiveMaxMbPerSecond,
+            int worldArchiveMaxQueued,
+            int worldArchiveKeep,
             boolean useExternalChat,
             boolean useExternalTab,
             boolean disablePrivateChat
@@ -68,6 +178,19 @@ public final class Settings {
         this.postgameSendBackDelaySec = postgameSendBackDelaySec;
         this.resetBlockStartWhileResetting = resetBlockStartWhileResetting;
         this.resetRandomSeedEachRound = resetRandomSeedEachRound;
+        this.resetPoolSize = Math.max(1, resetPoolSize);
+        this.resetMode = RESET_MODE_TEMPLATE.equalsIgnoreCase(resetMode) ? RESET_MODE_TEMPLATE : RESET_MODE_REGENERATE;
+        this.resetPartialRestore = resetPartialRestore;
+        this.resetFlipPromote = resetFlipPromote;
+
+        this.seedScreenEnabled = seedScreenEnabled;
+        this.seedScreenMaxAttempts = Math.max(1, seedScreenMaxAttempts);
+        this.seedScreenRejectOceanSpawn = seedScreenRejectOceanSpawn;
+        this.seedScreenMaxOceanRatio = Math.clamp(seedScreenMaxOceanRatio, 0.0, 1.0);
+        this.seedScreenMaxStrongholdDistance = Math.max(0, seedScreenMaxStrongholdDistance);
+        this.resetSeedList = List.copyOf(resetSeedList);
+        this.seedCacheEnabled = seedCacheEnabled;
+        this.seedCacheMaxSizeMb = Math.max(0, seedCacheMaxSizeMb);
         this.autoStartMinPlayers = autoStartMinPlayers;
         this.autoStartCountdownSec = autoStartCountdownSec;
         this.autoAssignOnJoin = autoAssignOnJoin;
@@ -79,8 +202,45 @@ public final class Settings {
         this.runnerRingJitter = runnerRingJitter;
         this.hunterCenterScatterRadius = hunterCenterScatterRadius;
         this.scatterMaxTries = scatterMaxTries;
+        this.scatterMaxInFlight = Math.max(1, scatterMaxInFlight);
+        this.scatterRunnerMinSeparation = Math.max(1, scatterRunnerMinSeparation);
+
+        this.teleportMaxPerTick = Math.max(1, teleportMaxPerTick);
+        this.teleportSlowMspt = teleportSlowMspt;
 
         this.worldPreloadRadiusBlocks = worldPreloadRadiusBlocks;
+        this.worldPreloadRadiusNether = worldPreloadRadiusNether;
+        this.worldPreloadRadiusEnd = worldPreloadRadiusEnd;
+        this.worldPreloadAdaptiveEnabled = worldPreloadAdaptiveEnabled;
+        this.worldPreloadAdaptiveMinRounds = Math.max(1, worldPreloadAdaptiveMinRounds);
+        this.worldPreloadAdaptiveMinRadius = Math.max(0, worldPreloadAdaptiveMinRadius);
+        this.worldPreloadAdaptiveMaxRadius = Math.max(this.worldPreloadAdaptiveMinRadius, worldPreloadAdaptiveMaxRadius);
+        this.worldPreloadAdaptiveHistorySize = Math.max(1, worldPreloadAdaptiveHistorySize);
+        this.worldLazyDimensions = worldLazyDimensions;
+        this.worldLazyIdleUnloadSec = Math.max(0, worldLazyIdleUnloadSec);
+        this.worldDiscardable = worldDiscardable;
+        this.worldGameContainer = worldGameContainer == null ? "" : worldGameContainer.trim();
+        this.worldPregenBackend = PREGEN_BACKEND_BUILTIN.equalsIgnoreCase(worldPregenBackend) ? PREGEN_BACKEND_BUILTIN : PREGEN_BACKEND_AUTO;
+        this.worldPregenMaxInFlight = Math.max(1, worldPregenMaxInFlight);
+        this.worldPregenRetries = Math.max(0, worldPregenRetries);
+        this.worldPregenStallTimeoutSec = Math.max(0, worldPregenStallTimeoutSec);
+
+        this.throttleEnabled = throttleEnabled;
+        this.throttleRunningSlowMspt = throttleRunningSlowMspt;
+        this.throttleRunningPauseMspt = throttleRunningPauseMspt;
+        this.throttleRunningMinTps = throttleRunningMinTps;
+        this.throttleRunningMaxBudget = Math.clamp(throttleRunningMaxBudget, 0.0, 1.0);
+        this.throttleIdleSlowMspt = throttleIdleSlowMspt;
+        this.throttleIdlePauseMspt = throttleIdlePauseMspt;
+        this.throttleIdleMinTps = throttleIdleMinTps;
+        this.worldTrashWorkers = Math.max(1, worldTrashWorkers);
+        this.worldTrashMaxFilesPerSecond = Math.max(0, worldTrashMaxFilesPerSecond);
+        this.worldArchiveEnabled = worldArchiveEnabled;
+        this.worldArchiveDir = worldArchiveDir == null ? "" : worldArchiveDir.trim();
+        this.worldArchiveCompressionLevel = Math.clamp(worldArchiveCompressionLevel, 0, 9);
+        this.worldArchiveMaxMbPerSecond = Math.max(0, worldArchiveMaxMbPerSecond);
+        this.worldArchiveMaxQueued = Math.max(1, worldArchiveMaxQueued);
+        this.worldArchiveKeep = Math.max(0, worldArchiveKeep);
         this.useExternalChat = useExternalChat;
         this.useExternalTab = useExternalTab;
 
@@ -20,6 +20,20 @@ public final class SettingsLoader {
                 c.getInt("reset.postgameSendBackDelaySec", 10),
                 c.getBoolean("reset.blockStartWhileResetting", true),
                 c.getBoolean("reset.randomSeedEachRound", true),
+                c.getInt("reset.poolSize", 2),
+                c.getString("reset.mode", Settings.RESET_MODE_REGENERATE),
+                c.getBoolean("reset.partialRestore", false),
+                c.getBoolean("reset.flipPromote", false),
+
+                // 种子预筛选
+                c.getBoolean("reset.seedScreen.enabled", true),
+                c.getInt("reset.seedScreen.maxAttempts", 8),
+                c.getBoolean("reset.seedScreen.rejectOceanSpawn", true),
+                c.getDouble("reset.seedScreen.maxOceanRatio", 0.35),
+                c.getInt("reset.seedScreen.maxStrongholdDistance", 2500),
+                c.getLongList("reset.seedList"),
+                c.getBoolean("reset.seedCache.enabled", true),
+                c.getInt("reset.seedCache.maxSizeMb", 4096),
                 c.getInt("auto.minPlayers", 2),
                 c.getInt("auto.countdownSeconds", 10),
                 c.getBoolean("auto.assignOnJoin", true),
@@ -33,9 +47,46 @@ public final class SettingsLoader {
                 c.getInt("scatter.runnerRingJitter", 24),
                 c.getInt("scatter.hunterCenterScatterRadius", 16),
                 c.getInt("scatter.maxTries", 20),
+                c.getInt("scatter.maxInFlight", 12),
+                c.getInt("scatter.runnerMinSeparation", 24),
+                c.getInt("teleport.maxPerTick", 8),
+                c.getDouble("teleport.slowMspt", 40.0),
 
                 // 世界预加载
                 c.getInt("world.preloadRadiusBlocks", 1000),
+                c.getInt("world.preloadRadiusNether", -1),
+                c.getInt("world.preloadRadiusEnd", 192),
+                c.getBoolean("world.preloadAdaptive.enabled", false),
+                c.getInt("world.preloadAdaptive.minRounds", 3),
+                c.getInt("world.preloadAdaptive.minRadius", 128),
+                c.getInt("world.preloadAdaptive.maxRadius", 1024),
+                c.getInt("world.preloadAdaptive.historySize", 20),
+                c.getBoolean("world.lazyDimensions.enabled", false),
+                c.getInt("world.lazyDimensions.idleUnloadSec", 60),
+                c.getBoolean("world.discardable", false),
+                c.getString("world.gameContainer", ""),
+                c.getString("world.pregen.backend", Settings.PREGEN_BACKEND_AUTO),
+                c.getInt("world.pregen.maxInFlight", 16),
+                c.getInt("world.pregen.retries", 2),
+                c.getInt("world.pregen.stallTimeoutSec", 120),
+
+                // 预生成调速
+                c.getBoolean("world.throttle.enabled", true),
+                c.getDouble("world.throttle.running.slowMspt", 35.0),
+                c.getDouble("world.throttle.running.pauseMspt", 45.0),
+                c.getDouble("world.throttle.running.minTps", 18.5),
+                c.getDouble("world.throttle.running.maxBudget", 0.5),
+                c.getDouble("world.throttle.idle.slowMspt", 45.0),
+                c.getDouble("world.throttle.idle.pauseMspt", 60.0),
+                c.getDouble("world.throttle.idle.minTps", 15.0),
+                c.getInt("world.trash.workers", 2),
+                c.getInt("world.trash.maxFilesPerSecond", 2000),
+                c.getBoolean("world.archive.enabled", false),
+                c.getString("world.archive.dir", ""),
+                c.getInt("world.archive.compressionLevel", 1),
+                c.getInt("world.archive.maxMbPerSecond", 32),
+                c.getInt("world.archive.maxQueued", 2),
+                c.getInt("world.archive.keep", 20),
 
                 c.getBoolean("compatibility.useExternalChat", true),
                 c.getBoolean("compatibility.useExternalTab", true),
@@ -0,0 +1,150 @@
+package top.chancelethay.minehunt.utils;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * 回收站清理器
+ *
+ * 世界目录先通过同一文件系统内的原子重命名移入回收站目录，重置流程无需等待删除完成；
+ * 随后由固定数量的后台线程逐个删除回收站中的目录树，并按每秒文件数限速，避免与区块读写争抢磁盘。
+ */
+public final class TrashPurger {
+
+    private final Path trashDir;
+    private final Logger log;
+    private final ExecutorService workers;
+    private final long maxFilesPerSecond;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong freedFiles = new AtomicLong();
+    private final AtomicLong freedBytes = new AtomicLong();
+
+    private long nextPermitNanos = 0L;
+
+    public TrashPurger(Path trashDir, int workerCount, long maxFilesPerSecond, Logger log) {
+        this.trashDir = trashDir;
+        this.log = log;
+        this.maxFilesPerSecond = maxFilesPerSecond;
+
+        AtomicInteger seq = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "MineHunt-Purge-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        };
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerCount), factory);
+    }
+
+    public Path getTrashDir() { return trashDir; }
+    public int getPendingTrees() { return pending.get(); }
+    public long getFreedFiles() { return freedFiles.get(); }
+    public long getFreedBytes() { return freedBytes.get(); }
+
+    /**
+     * 将目录原子移动进回收站并排队清理。
+     * 目标不在同一文件系统等原因导致重命名失败时，返回 false，由调用方自行删除。
+     */
+    public boolean trash(Path dir) {
+        if (!Files.exists(dir)) return true;
+        try {
+            Files.createDirectories(trashDir);
+            Path target = trashDir.resolve(dir.getFileName() + "-" + System.nanoTime());
+            Files.move(dir, target, StandardCopyOption.ATOMIC_MOVE);
+            submit(target);
+            return true;
+        } catch (IOException ex) {
+            log.warning("[Trash] Rename failed for " + dir.getFileName() + " -> " + ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 启动时清理上次未删完的回收站内容。
+     */
+    public void resumeLeftovers() {
+        if (!Files.isDirectory(trashDir)) return;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(trashDir)) {
+            for (Path p : ds) submit(p);
+        } catch (IOException ex) {
+            log.warning("[Trash] Failed to scan " + trashDir + " -> " + ex.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+        try { workers.awaitTermination(2, TimeUnit.SECONDS); } catch (InterruptedException ignored) {}
+    }
+
+    private void submit(Path tree) {
+        pending.incrementAndGet();
+        workers.execute(() -> {
+            try {
+                purge(tree);
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    private void purge(Path tree) {
+        long start = System.nanoTime();
+        long[] counts = {0L, 0L};
+        try {
+            Files.walkFileTree(tree, new SimpleFileVisitor<>() {
+                @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!acquire()) return FileVisitResult.TERMINATE;
+                    try {
+                        Files.deleteIfExists(file);
+                        counts[0]++;
+                        counts[1] += attrs.size();
+                    } catch (IOException ignored) {}
+                    return FileVisitResult.CONTINUE;
+                }
+                @Override public FileVisitResult postVisitDirectory(Path d, IOException exc) {
+                    try { Files.deleteIfExists(d); } catch (IOException ignored) {}
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            log.warning("[Trash] Purge error in " + tree.getFileName() + " -> " + ex.getMessage());
+        }
+
+        freedFiles.addAndGet(counts[0]);
+        freedBytes.addAndGet(counts[1]);
+        long ms = (System.nanoTime() - start) / 1_000_000L;
+        log.info("[Trash] Purged " + tree.getFileName() + ": " + counts[0] + " files, "
+                + (counts[1] >> 20) + " MB in " + ms + " ms");
+    }
+
+    /**
+     * 每删除一个文件获取一个许可；线程被中断 (插件卸载) 时返回 false。
+     */
+    private boolean acquire() {
+        if (maxFilesPerSecond <= 0) return true;
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextPermitNanos);
+            nextPermitNanos = slot + 1_000_000_000L / maxFilesPerSecond;
+            wait = slot - now;
+        }
+        if (wait <= 0) return true;
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package top.chancelethay.minehunt.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 对局世界归档器
+ *
+ * 被丢弃的世界目录先原子重命名进所在文件系统的 .archiving/&lt;归档名&gt;/ 暂存目录 (与回收站同样的做法，重置流程无需等待)，
+ * 再由单个低优先级后台线程流式写入 zip：固定大小的读缓冲，按每秒字节数限速，避免与下一组世界的加载和预生成争抢磁盘。
+ * 区域文件只保留时间戳不早于世界组上线时间的区块 (即本轮写过盘的区块)，其余区块可由 level.dat 中的种子重新生成；
+ * 没有保留区块的区域文件整个跳过。归档完成后暂存目录交还给调用方删除；插件卸载时中断的归档在下次启动时重做。
+ */
+public final class WorldArchiver {
+
+    private static final String STAGING_DIR = ".archiving";
+    private static final String META = "archive.properties";
+    private static final String MANIFEST = "minehunt-archive.properties";
+    private static final int SECTOR = 4096;
+    private static final int HEADER = SECTOR * 2;
+    private static final int BUFFER = 64 * 1024;
+    private static final Set<String> REGION_DIRS = Set.of("region", "entities", "poi");
+    private static final Set<String> SKIP_NAMES = Set.of("session.lock", META);
+    private static final Pattern REGION_FILE = Pattern.compile("r\\.-?\\d+\\.-?\\d+\\.mca");
+    private static final Pattern EXTERNAL_FILE = Pattern.compile("c\\.-?\\d+\\.-?\\d+\\.mcc");
+
+    private final Path outDir;
+    private final int level;
+    private final long maxBytesPerSecond;
+    private final int maxQueued;
+    private final int keep;
+    private final Logger log;
+    private final ExecutorService worker;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong skippedChunks = new AtomicLong();
+
+    // 只在唯一的工作线程中使用
+    private final byte[] buffer = new byte[BUFFER];
+    private long nextPermitNanos = 0L;
+
+    public WorldArchiver(Path outDir, int level, long maxBytesPerSecond, int maxQueued, int keep, Logger log) {
+        this.outDir = outDir;
+        this.level = level;
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.maxQueued = Math.max(1, maxQueued);
+        this.keep = keep;
+        this.log = log;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "MineHunt-Archive");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    public Path getOutDir() { return outDir; }
+    public int getPending() { return pending.get(); }
+    public long getWrittenBytes() { return writtenBytes.get(); }
+    public long getSkippedChunks() { return skippedChunks.get(); }
+
+    /** 排队中的归档已达上限，新的世界组应直接删除 */
+    public boolean isBusy() { return pending.get() >= maxQueued; }
+
+    /**
+     * 把世界目录原子移动进同一文件系统的暂存目录。
+     *
+     * @return 该文件系统上的暂存根目录；目录不存在或重命名失败时返回 null，由调用方按原方式删除
+     */
+    public Path stage(String archiveName, String worldName, Path worldDir, long sinceMillis) {
+        if (!Files.isDirectory(worldDir)) return null;
+        Path root = worldDir.getParent().resolve(STAGING_DIR).resolve(archiveName);
+        try {
+            Files.createDirectories(root);
+            if (!Files.isRegularFile(root.resolve(META))) {
+                Properties meta = new Properties();
+                meta.setProperty("since", Long.toString(sinceMillis));
+                try (Writer w = Files.newBufferedWriter(root.resolve(META), StandardCharsets.UTF_8)) {
+                    meta.store(w, null);
+                }
+            }
+            Files.move(worldDir, root.resolve(worldName), StandardCopyOption.ATOMIC_MOVE);
+            return root;
+        } catch (IOException ex) {
+            log.warning("[Archive] Staging failed for " + worldName + " -> " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 排队归档一组暂存根目录 (同一归档可分布在多个文件系统上)，写完后逐个交给 release 删除。
+     */
+    public void submit(String archiveName, List<Path> roots, Consumer<Path> release) {
+        pending.incrementAndGet();
+        worker.execute(() -> {
+            try {
+                if (archive(archiveName, roots)) {
+                    for (Path root : roots) release.accept(root);
+                }
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * 启动时重新排队上次未完成的归档。同名暂存目录 (位于不同文件系统) 合并为一个归档。
+     */
+    public void resumeLeftovers(List<Path> containers, Consumer<Path> release) {
+        Map<String, List<Path>> byName = new LinkedHashMap<>();
+        for (Path container : containers) {
+            Path staging = container.resolve(STAGING_DIR);
+            if (!Files.isDirectory(staging)) continue;
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(staging, Files::isDirectory)) {
+                for (Path p : ds) byName.computeIfAbsent(p.getFileName().toString(), k -> new ArrayList<>()).add(p);
+            } catch (IOException ex) {
+                log.warning("[Archive] Failed to scan " + staging + " -> " + ex.getMessage());
+            }
+        }
+        byName.forEach((name, roots) -> {
+            log.info("[Archive] Resuming unfinished archive " + name);
+            submit(name, roots, release);
+        });
+    }
+
+    public void shutdown() {
+        worker.shutdownNow();
+        try { worker.awaitTermination(2, TimeUnit.SECONDS); } catch (InterruptedException ignored) {}
+    }
+
+    /**
+     * @return 归档是否结束 (成功或不可恢复的失败)；被中断时返回 false，保留暂存目录待下次启动重做
+     */
+    private boolean archive(String name, List<Path> roots) {
+        long start = System.nanoTime();
+        long since = Long.MAX_VALUE;
+        for (Path root : roots) since = Math.min(since, readSince(root));
+        if (since == Long.MAX_VALUE) since = 0L;
+
+        Path part = outDir.resolve(name + ".zip.part");
+        Path out = outDir.resolve(name + ".zip");
+        // 0 = 写入的源字节数, 1 = 文件数, 2 = 保留区块, 3 = 跳过区块
+        long[] stats = new long[4];
+        try {
+            Files.createDirectories(outDir);
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(part), BUFFER))) {
+                zip.setLevel(level);
+                for (Path root : roots) {
+                    try (DirectoryStream<Path> worlds = Files.newDirectoryStream(root, Files::isDirectory)) {
+                        for (Path world : worlds) writeWorld(zip, world, since, stats);
+                    }
+                }
+                writeManifest(zip, name, since, stats);
+            }
+            Files.move(part, out, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            try { Files.deleteIfExists(part); } catch (IOException ignored) {}
+            // 中断可能以 InterruptedIOException 或 ClosedByInterruptException 的形式出现
+            if (ex instanceof InterruptedIOException || Thread.currentThread().isInterrupted()) {
+                log.info("[Archive] Interrupted " + name + ", will resume on next start");
+                return false;
+            }
+            log.warning("[Archive] Failed to archive " + name + " -> " + ex.getMessage());
+            return true;
+        }
+
+        writtenBytes.addAndGet(stats[0]);
+        skippedChunks.addAndGet(stats[3]);
+        prune();
+
+        long ms = (System.nanoTime() - start) / 1_000_000L;
+        long size = 0L;
+        try { size = Files.size(out); } catch (IOException ignored) {}
+        log.info("[Archive] Wrote " + out.getFileName() + ": " + stats[1] + " files, " + stats[2] + " chunks kept, "
+                + stats[3] + " skipped, " + (size >> 20) + " MB in " + ms + " ms");
+        return true;
+    }
+
+    private void writeWorld(ZipOutputStream zip, Path world, long since, long[] stats) throws IOException {
+        String prefix = world.getFileName().toString() + "/";
+        Files.walkFileTree(world, new SimpleFileVisitor<>() {
+            @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String fileName = file.getFileName().toString();
+                if (SKIP_NAMES.contains(fileName)) return FileVisitResult.CONTINUE;
+
+                String entry = prefix + world.relativize(file).toString().replace('\\', '/');
+                Path parent = file.getParent();
+                boolean inRegionDir = parent != null && REGION_DIRS.contains(parent.getFileName().toString());
+
+                if (inRegionDir && REGION_FILE.matcher(fileName).matches()) {
+                    writeRegion(zip, entry, file, since, stats);
+                } else if (inRegionDir && EXTERNAL_FILE.matcher(fileName).matches()) {
+                    // 超大区块的外部文件：本轮未改写的不归档
+                    if (attrs.lastModifiedTime().toMillis() >= since) writeFile(zip, entry, file, stats);
+                } else {
+                    writeFile(zip, entry, file, stats);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 写入压缩后的区域文件：头部只保留入选区块，区块数据按原扇区数紧密重排。
+     */
+    private void writeRegion(ZipOutputStream zip, String entry, Path file, long since, long[] stats) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER) return;
+
+            ByteBuffer in = ByteBuffer.allocate(HEADER);
+            while (in.hasRemaining() && ch.read(in, in.position()) >= 0) {}
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+
+            long sinceSec = since / 1000L;
+            long[] offsets = new long[1024];
+            int[] sectors = new int[1024];
+            int kept = 0;
+            int next = 2;
+            for (int idx = 0; idx < 1024; idx++) {
+                int loc = in.getInt(idx * 4);
+                if (loc == 0) continue;
+                int stamp = in.getInt(SECTOR + idx * 4);
+                long off = (long) (loc >>> 8) * SECTOR;
+                int count = loc & 0xFF;
+                if (Integer.toUnsignedLong(stamp) < sinceSec || count == 0 || off < HEADER || off >= size) {
+                    stats[3]++;
+                    continue;
+                }
+                offsets[idx] = off;
+                sectors[idx] = count;
+                header.putInt(idx * 4, (next << 8) | count);
+                header.putInt(SECTOR + idx * 4, stamp);
+                next += count;
+                kept++;
+            }
+            if (kept == 0) return;
+
+            zip.putNextEntry(new ZipEntry(entry));
+            acquire(HEADER);
+            zip.write(header.array());
+            for (int idx = 0; idx < 1024; idx++) {
+                if (sectors[idx] == 0) continue;
+                copyRange(ch, offsets[idx], (long) sectors[idx] * SECTOR, zip);
+            }
+            zip.closeEntry();
+
+            stats[0] += HEADER + (long) (next - 2) * SECTOR;
+            stats[1]++;
+            stats[2] += kept;
+        }
+    }
+
+    private void writeFile(ZipOutputStream zip, String entry, Path file, long[] stats) throws IOException {
+        zip.putNextEntry(new ZipEntry(entry));
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                acquire(n);
+                zip.write(buffer, 0, n);
+                stats[0] += n;
+            }
+        }
+        zip.closeEntry();
+        stats[1]++;
+    }
+
+    /** 经固定缓冲复制一段文件内容；源文件末尾未按扇区补齐时以零填充 */
+    private void copyRange(FileChannel ch, long pos, long len, ZipOutputStream zip) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(buffer);
+        long remaining = len;
+        while (remaining > 0) {
+            int want = (int) Math.min(BUFFER, remaining);
+            buf.clear().limit(want);
+            int n = ch.read(buf, pos);
+            if (n <= 0) {
+                Arrays.fill(buffer, 0, want, (byte) 0);
+                n = want;
+            }
+            acquire(n);
+            zip.write(buffer, 0, n);
+            pos += n;
+            remaining -= n;
+        }
+    }
+
+    private void writeManifest(ZipOutputStream zip, String name, long since, long[] stats) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("name", name);
+        p.setProperty("since", Long.toString(since));
+        p.setProperty("archivedAt", Long.toString(System.currentTimeMillis()));
+        p.setProperty("chunksKept", Long.toString(stats[2]));
+        p.setProperty("chunksSkipped", Long.toString(stats[3]));
+        p.setProperty("note", "Region files only contain chunks saved after 'since'; regenerate the rest from the seed in level.dat.");
+        zip.putNextEntry(new ZipEntry(MANIFEST));
+        p.store(zip, null);
+        zip.closeEntry();
+    }
+
+    /** 只保留最近 keep 个归档 (0 = 不限) */
+    private void prune() {
+        if (keep <= 0) return;
+        List<Path> archives = new ArrayList<>();
+        try (Stream<Path> s = Files.list(outDir)) {
+            s.filter(p -> p.getFileName().toString().endsWith(".zip")).forEach(archives::add);
+        } catch (IOException ignored) {
+            return;
+        }
+        if (archives.size() <= keep) return;
+
+        archives.sort(Comparator.comparingLong(WorldArchiver::lastModified));
+        for (Path p : archives.subList(0, archives.size() - keep)) {
+            try {
+                Files.deleteIfExists(p);
+                log.info("[Archive] Pruned " + p.getFileName());
+            } catch (IOException ex) {
+                log.warning("[Archive] Failed to prune " + p.getFileName() + " -> " + ex.getMessage());
+            }
+        }
+    }
+
+    private static long lastModified(Path p) {
+        try { return Files.getLastModifiedTime(p).toMillis(); } catch (IOException ex) { return 0L; }
+    }
+
+    private static long readSince(Path root) {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(root.resolve(META), StandardCharsets.UTF_8)) {
+            p.load(r);
+            return Long.parseLong(p.getProperty("since", "0").trim());
+        } catch (IOException | NumberFormatException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 按字节数获取许可；线程被中断 (插件卸载) 时抛出 InterruptedIOException 终止本次归档。
+     */
+    private void acquire(long bytes) throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException();
+        if (maxBytesPerSecond <= 0) return;
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextPermitNanos);
+        nextPermitNanos = slot + bytes * 1_000_000_000L / maxBytesPerSecond;
+        long wait = slot - now;
+        if (wait <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package top.chancelethay.minehunt.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 世界目录文件操作
+ *
+ * 不依赖 Bukkit 的纯文件工具，供世界重置流程在后台线程调用。
+ */
+public final class WorldFiles {
+
+    private WorldFiles() {}
+
+    /**
+     * 递归删除目录树。单个文件删除失败时跳过，尽量删除其余内容。
+     */
+    public static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                try { Files.deleteIfExists(file); } catch (IOException ignored) {}
+                return FileVisitResult.CONTINUE;
+            }
+            @Override public FileVisitResult postVisitDirectory(Path d, IOException exc) {
+                try { Files.deleteIfExists(d); } catch (IOException ignored) {}
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 递归复制目录树，跳过名称位于 skipNames 中的文件。
+     *
+     * @return 复制的字节数
+     */
+    public static long copyTree(Path src, Path dst, Set<String> skipNames) throws IOException {
+        final long[] bytes = {0L};
+        Files.walkFileTree(src, new SimpleFileVisitor<>() {
+            @Override public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(dst.resolve(src.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+            @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (skipNames.contains(file.getFileName().toString())) return FileVisitResult.CONTINUE;
+                Files.copy(file, dst.resolve(src.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING);
+                bytes[0] += attrs.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return bytes[0];
+    }
+
+    /**
+     * 以 src 为准同步 dst：复制全部文件并删除 dst 中多出的文件。
+     * 名称位于 excludedDirs 中的子目录整体跳过 (由调用方按区块级别处理)，
+     * skipNames 中的文件既不复制也不删除。
+     */
+    public static void syncTreeExcept(Path src, Path dst, Set<String> excludedDirs, Set<String> skipNames) throws IOException {
+        Files.walkFileTree(src, new SimpleFileVisitor<>() {
+            @Override public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(src) && excludedDirs.contains(dir.getFileName().toString())) return FileVisitResult.SKIP_SUBTREE;
+                Files.createDirectories(dst.resolve(src.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+            @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (skipNames.contains(file.getFileName().toString())) return FileVisitResult.CONTINUE;
+                Files.copy(file, dst.resolve(src.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (!Files.isDirectory(dst)) return;
+        Files.walkFileTree(dst, new SimpleFileVisitor<>() {
+            @Override public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(dst) && excludedDirs.contains(dir.getFileName().toString())) return FileVisitResult.SKIP_SUBTREE;
+                return FileVisitResult.CONTINUE;
+            }
+            @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (skipNames.contains(file.getFileName().toString())) return FileVisitResult.CONTINUE;
+                if (!Files.exists(src.resolve(dst.relativize(file).toString()))) {
+                    try { Files.deleteIfExists(file); } catch (IOException ignored) {}
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 查找 root 下 maxDepth 层以内名称位于 names 中的目录，返回相对 root 的路径。
+     */
+    public static Set<String> findDirs(Path root, Set<String> names, int maxDepth) throws IOException {
+        Set<String> out = new HashSet<>();
+        if (!Files.isDirectory(root)) return out;
+        try (Stream<Path> walk = Files.walk(root, maxDepth)) {
+            walk.filter(Files::isDirectory)
+                    .filter(p -> !p.equals(root) && names.contains(p.getFileName().toString()))
+                    .forEach(p -> out.add(root.relativize(p).toString()));
+        }
+        return out;
+    }
+
+    /**
+     * 计算目录指纹：对 dirNames 类目录 (含 DIM-1/DIM1 下的同名目录) 中所有文件的相对路径与大小做 CRC32。
+     * 只用于判断预生成结果在重启前后是否被改动或截断，不读取文件内容。
+     */
+    public static long fingerprint(Path root, Set<String> dirNames) throws IOException {
+        return fingerprint(root, dirNames, true);
+    }
+
+    /**
+     * @param withSizes 为 false 时只对相对路径做 CRC32，用于保持加载、仍可能被保存的世界
+     */
+    public static long fingerprint(Path root, Set<String> dirNames, boolean withSizes) throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (String rel : findDirs(root, dirNames, 2)) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(root.resolve(rel))) {
+                for (Path f : ds) {
+                    if (!Files.isRegularFile(f)) continue;
+                    String name = rel.replace('\\', '/') + "/" + f.getFileName();
+                    entries.add(withSizes ? name + ":" + Files.size(f) : name);
+                }
+            }
+        }
+        Collections.sort(entries);
+
+        CRC32 crc = new CRC32();
+        for (String e : entries) {
+            crc.update(e.getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        return crc.getValue();
+    }
+}